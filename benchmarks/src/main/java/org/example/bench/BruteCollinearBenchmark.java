@@ -0,0 +1,54 @@
+package org.example.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brute force, plain and optimized, against the fast engine on sizes the n4 brute force can handle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BruteCollinearBenchmark {
+	@Param({"BRUTE", "BRUTE_OPTIMIZED", "FAST"})
+	private Engine engine;
+
+	/**
+	 * Brute force takes no input with 5 or more collinear points, which rules out GRID and ONE_LINE at these sizes
+	 * and LINES with its lines of up to 8 points. NEAR_COLLINEAR plants lines of exactly 4 points.
+	 */
+	@Param({"UNIFORM", "NEAR_COLLINEAR"})
+	private Workload workload;
+
+	@Param({"25", "50", "100", "200"})
+	private int size;
+
+	private Engine.Detector detector;
+	private Engine.Input points;
+
+	@Setup
+	public void setUp() {
+		int[][] coordinates = workload.generate(size, 42L);
+		points = Engine.points(coordinates[0], coordinates[1]);
+		detector = engine.bind();
+	}
+
+	@Benchmark
+	public int detect() throws Throwable {
+		return detector.numberOfSegments(points);
+	}
+}
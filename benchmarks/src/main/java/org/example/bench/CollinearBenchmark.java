@@ -0,0 +1,51 @@
+package org.example.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the n2 log n engines over all workloads, from 100 up to 10^5 points.
+ * Run with -prof gc to get the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CollinearBenchmark {
+	@Param({"FAST", "FAST_PARALLEL", "HASH"})
+	private Engine engine;
+
+	@Param({"UNIFORM", "GRID", "LINES", "ONE_LINE"})
+	private Workload workload;
+
+	@Param({"100", "1000", "10000", "100000"})
+	private int size;
+
+	private Engine.Detector detector;
+	private Engine.Input points;
+
+	@Setup
+	public void setUp() {
+		int[][] coordinates = workload.generate(size, 42L);
+		points = Engine.points(coordinates[0], coordinates[1]);
+		detector = engine.bind();
+	}
+
+	@Benchmark
+	public int detect() throws Throwable {
+		return detector.numberOfSegments(points);
+	}
+}
@@ -0,0 +1,147 @@
+package org.example.bench;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Differential runner: every engine is run over the same generated workloads and must find the same maximal segments
+ * as the fast engine. Engines returning every segment of 4 points, as the brute force does, are compared after
+ * merging their segments on the same line, and only on small sizes, where the number of such segments stays low.
+ * The runtime of every engine is printed with the result; a single run is timed, use the JMH benchmarks for
+ * precise figures.
+ *
+ * Usage: java -cp target/benchmarks.jar org.example.bench.Differential [seeds [size...]]
+ * Exits with status 1 if any engine differs.
+ */
+public final class Differential {
+	private static final int BRUTE_FORCE_MAX_SIZE = 60;
+	private static final Engine REFERENCE = Engine.FAST;
+
+	private Differential() {
+	}
+
+	public static void main(String[] args) throws Throwable {
+		int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		List<Integer> sizes = new ArrayList<>();
+		for (int i = 1; i < args.length; i++) {
+			sizes.add(Integer.parseInt(args[i]));
+		}
+		if (sizes.isEmpty()) {
+			sizes = List.of(50, 500, 5000);
+		}
+		int differences = 0;
+		for (Workload workload : Workload.values()) {
+			for (int size : sizes) {
+				for (long seed = 1; seed <= seeds; seed++) {
+					differences += compare(workload, size, seed);
+				}
+			}
+		}
+		System.out.println(differences == 0 ? "All engines agree" : differences + " differences");
+		System.exit(differences == 0 ? 0 : 1);
+	}
+
+	/**
+	 * @return the number of engines which differ from the reference
+	 */
+	private static int compare(Workload workload, int size, long seed) throws Throwable {
+		int[][] coordinates = workload.generate(size, seed);
+		Engine.Input points = Engine.points(coordinates[0], coordinates[1]);
+		Set<String> expected = run(REFERENCE, points, workload, size, seed, null);
+		int differences = 0;
+		for (Engine engine : Engine.values()) {
+			if (engine == REFERENCE || !engine.isMaximal() && size > BRUTE_FORCE_MAX_SIZE) {
+				continue;
+			}
+			if (run(engine, points, workload, size, seed, expected) == null) {
+				differences++;
+			}
+		}
+		return differences;
+	}
+
+	/**
+	 * Runs the engine and prints its runtime and result.
+	 *
+	 * @return maximal segments found, or null if they differ from the expected ones
+	 */
+	private static Set<String> run(Engine engine, Engine.Input points, Workload workload, int size, long seed,
+								   Set<String> expected) throws Throwable {
+		Engine.Detector detector = engine.bind();
+		long start = System.nanoTime();
+		List<String> found = detector.segments(points);
+		long nanos = System.nanoTime() - start;
+		Set<String> maximal = maximal(found);
+		boolean same = (!engine.isMaximal() || found.size() == maximal.size())
+				&& (expected == null || expected.equals(maximal));
+		System.out.printf("%-14s %7d %3d %-16s %12.3f ms %8d segments %s%n", workload, size, seed, engine,
+						  nanos / 1e6, maximal.size(), same ? "OK" : "DIFFERENT");
+		return same ? maximal : null;
+	}
+
+	/**
+	 * Merges segments on the same line into one, from the smallest to the biggest of their ends in natural order.
+	 *
+	 * @param segments segments in the format of LineSegment.toString()
+	 * @return the merged segments, in the same format
+	 */
+	static Set<String> maximal(List<String> segments) {
+		Map<String, long[]> lines = new HashMap<>();
+		for (String segment : segments) {
+			String[] ends = segment.split(" -> ");
+			long[] p = parse(ends[0]);
+			long[] q = parse(ends[1]);
+			long[] line = lines.computeIfAbsent(lineKey(p, q), key -> new long[]{p[0], p[1], p[0], p[1]});
+			for (long[] end : new long[][]{p, q}) {
+				if (compare(end[0], end[1], line[0], line[1]) < 0) {
+					line[0] = end[0];
+					line[1] = end[1];
+				}
+				if (compare(end[0], end[1], line[2], line[3]) > 0) {
+					line[2] = end[0];
+					line[3] = end[1];
+				}
+			}
+		}
+		Set<String> result = new TreeSet<>();
+		for (long[] ends : lines.values()) {
+			result.add("(" + ends[0] + ", " + ends[1] + ") -> (" + ends[2] + ", " + ends[3] + ")");
+		}
+		return result;
+	}
+
+	private static long[] parse(String point) {
+		String[] coordinates = point.substring(1, point.length() - 1).split(", ");
+		return new long[]{Long.parseLong(coordinates[0]), Long.parseLong(coordinates[1])};
+	}
+
+	/**
+	 * Line a*x + b*y = c with (a, b) divided by their greatest common divisor and a sign chosen once per line.
+	 */
+	private static String lineKey(long[] p, long[] q) {
+		long a = q[1] - p[1];
+		long b = p[0] - q[0];
+		long gcd = BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).longValueExact();
+		a /= gcd;
+		b /= gcd;
+		if (a < 0 || a == 0 && b < 0) {
+			a = -a;
+			b = -b;
+		}
+		BigInteger c = BigInteger.valueOf(a).multiply(BigInteger.valueOf(p[0]))
+				.add(BigInteger.valueOf(b).multiply(BigInteger.valueOf(p[1])));
+		return a + " " + b + " " + c;
+	}
+
+	/**
+	 * Natural order of points: by y, then by x.
+	 */
+	private static int compare(long x1, long y1, long x2, long y2) {
+		return y1 != y2 ? Long.compare(y1, y2) : Long.compare(x1, x2);
+	}
+}
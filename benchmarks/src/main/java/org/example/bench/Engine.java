@@ -0,0 +1,267 @@
+package org.example.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Collinear points engines under benchmark.
+ *
+ * Engines live in the unnamed package of the collinear artifact, which cannot be referenced from a named package
+ * (and JMH generates code into a named one), so they are bound through method handles once per trial.
+ * A new engine is benchmarked by adding a constant with the name of its class.
+ * Engines without a result object, as the streaming and out-of-core ones, are bound through adapters
+ * collecting their segments into a list. Engines are given an {@link Input}, holding the points both as an array
+ * of Point and as their coordinates.
+ */
+public enum Engine {
+	BRUTE("BruteCollinearPoints", false),
+	BRUTE_OPTIMIZED("BruteCollinearPoints", false) {
+		@Override
+		MethodHandle factory(Class<?> engineClass, Class<?> pointsClass) throws ReflectiveOperationException {
+			MethodHandle optimized = LOOKUP.findStatic(engineClass, "optimized",
+													   methodType(engineClass, pointsClass, ForkJoinPool.class));
+			return MethodHandles.insertArguments(optimized, 1, ForkJoinPool.commonPool());
+		}
+	},
+	FAST("FastCollinearPoints", true),
+	HASH("HashCollinearPoints", true),
+	FAST_PARALLEL("FastCollinearPoints", true) {
+		@Override
+		MethodHandle factory(Class<?> engineClass, Class<?> pointsClass) throws ReflectiveOperationException {
+			MethodHandle parallel = LOOKUP.findStatic(engineClass, "parallel",
+													  methodType(engineClass, pointsClass, ForkJoinPool.class));
+			return MethodHandles.insertArguments(parallel, 1, ForkJoinPool.commonPool());
+		}
+	},
+	FAST_STREAMING("FastCollinearPoints", true) {
+		@Override
+		Detector bind(Class<?> engineClass, Class<?> pointsClass) throws ReflectiveOperationException {
+			MethodHandle forEach = LOOKUP.findStatic(engineClass, "forEachSegment",
+													 methodType(void.class, pointsClass, Consumer.class));
+			MethodHandle stream = ADAPTERS.findStatic(Engine.class, "stream",
+													  methodType(List.class, MethodHandle.class, Object.class));
+			return adapted(onPoints(MethodHandles.insertArguments(stream, 0, forEach)));
+		}
+	},
+	INDEX("CollinearIndex", true),
+	/**
+	 * Without a limit on gaps the tiled engine finds the same segments as the fast one.
+	 */
+	TILED("TiledCollinearPoints", true) {
+		@Override
+		MethodHandle factory(Class<?> engineClass, Class<?> pointsClass) throws ReflectiveOperationException {
+			MethodHandle tiled = LOOKUP.findConstructor(engineClass, methodType(void.class, pointsClass, int.class));
+			return MethodHandles.insertArguments(tiled, 1, Integer.MAX_VALUE);
+		}
+	},
+	/**
+	 * Runs through a points file and a segments file in a temporary directory, writing and reading them is timed too.
+	 */
+	OUT_OF_CORE("OutOfCoreCollinearPoints", true) {
+		@Override
+		Detector bind(Class<?> engineClass, Class<?> pointsClass) throws ReflectiveOperationException {
+			MethodHandle write = LOOKUP.findStatic(Class.forName("PointsFile"), "write",
+												   methodType(void.class, Path.class, int[].class, int[].class));
+			MethodHandle detect = LOOKUP.findStatic(engineClass, "detect",
+													methodType(long.class, Path.class, Path.class, int.class));
+			MethodHandle outOfCore = ADAPTERS.findStatic(Engine.class, "outOfCore",
+														 methodType(List.class, MethodHandle.class, MethodHandle.class,
+																	Input.class));
+			return adapted(MethodHandles.insertArguments(outOfCore, 0, write, detect));
+		}
+	};
+
+	/**
+	 * Budget of the out-of-core engine, small enough for it to split directions into partitions on bigger inputs.
+	 */
+	private static final int OUT_OF_CORE_BUDGET = 1 << 18;
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+	private static final MethodHandles.Lookup ADAPTERS = MethodHandles.lookup();
+	private static final MethodHandle POINTS = points();
+	private final String className;
+	private final boolean maximal;
+
+	Engine(String className, boolean maximal) {
+		this.className = className;
+		this.maximal = maximal;
+	}
+
+	/**
+	 * @return true if the engine returns only maximal segments, false if it returns every segment of 4 points
+	 */
+	public boolean isMaximal() {
+		return maximal;
+	}
+
+	/**
+	 * @return handle creating the engine from an array of points
+	 */
+	MethodHandle factory(Class<?> engineClass, Class<?> pointsClass) throws ReflectiveOperationException {
+		return LOOKUP.findConstructor(engineClass, methodType(void.class, pointsClass));
+	}
+
+	/**
+	 * Binds the engine.
+	 *
+	 * @return detector running the engine
+	 * @throws IllegalStateException if the engine is not on the class path
+	 */
+	public Detector bind() {
+		try {
+			Class<?> engineClass = Class.forName(className);
+			Class<?> pointsClass = Array.newInstance(Class.forName("Point"), 0).getClass();
+			return bind(engineClass, pointsClass);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot bind engine " + this, e);
+		}
+	}
+
+	/**
+	 * @return detector creating the engine through {@link #factory(Class, Class)} and querying its result
+	 */
+	Detector bind(Class<?> engineClass, Class<?> pointsClass) throws ReflectiveOperationException {
+		MethodHandle create = onPoints(factory(engineClass, pointsClass));
+		MethodHandle count = LOOKUP.findVirtual(engineClass, "numberOfSegments", methodType(int.class))
+				.asType(methodType(int.class, Object.class));
+		Class<?> segmentsClass = Array.newInstance(Class.forName("LineSegment"), 0).getClass();
+		MethodHandle segments = LOOKUP.findVirtual(engineClass, "segments", methodType(segmentsClass))
+				.asType(methodType(Object[].class, Object.class));
+		return new Detector(create, count, segments);
+	}
+
+	/**
+	 * @param handle handle taking the array of points
+	 * @return handle taking the input instead
+	 */
+	private static MethodHandle onPoints(MethodHandle handle) {
+		return MethodHandles.filterArguments(handle.asType(methodType(Object.class, Object.class)), 0, POINTS);
+	}
+
+	private static MethodHandle points() {
+		try {
+			return ADAPTERS.findGetter(Input.class, "points", Object.class);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @param collect handle taking the input and returning the list of segments found
+	 * @return detector whose result is the list
+	 */
+	private static Detector adapted(MethodHandle collect) throws ReflectiveOperationException {
+		MethodHandle create = collect.asType(methodType(Object.class, Input.class));
+		MethodHandle count = LOOKUP.findVirtual(List.class, "size", methodType(int.class))
+				.asType(methodType(int.class, Object.class));
+		MethodHandle segments = LOOKUP.findVirtual(List.class, "toArray", methodType(Object[].class))
+				.asType(methodType(Object[].class, Object.class));
+		return new Detector(create, count, segments);
+	}
+
+	private static List<Object> stream(MethodHandle forEach, Object points) throws Throwable {
+		List<Object> found = new ArrayList<>();
+		Consumer<Object> collect = found::add;
+		forEach.invoke(points, collect);
+		return found;
+	}
+
+	private static List<String> outOfCore(MethodHandle write, MethodHandle detect, Input input) throws Throwable {
+		Path dir = Files.createTempDirectory("collinear-bench");
+		Path pointsFile = dir.resolve("points.bin");
+		Path segmentsFile = dir.resolve("segments.txt");
+		try {
+			write.invoke(pointsFile, input.xs, input.ys);
+			detect.invoke(pointsFile, segmentsFile, OUT_OF_CORE_BUDGET);
+			return Files.readAllLines(segmentsFile);
+		} finally {
+			Files.deleteIfExists(pointsFile);
+			Files.deleteIfExists(segmentsFile);
+			Files.deleteIfExists(dir);
+		}
+	}
+
+	/**
+	 * Creates the input taken by the engines.
+	 *
+	 * @return input with a Point[] of the given coordinates
+	 */
+	public static Input points(int[] xs, int[] ys) {
+		try {
+			Class<?> pointClass = Class.forName("Point");
+			MethodHandle constructor = LOOKUP.findConstructor(pointClass, methodType(void.class, int.class, int.class));
+			Object points = Array.newInstance(pointClass, xs.length);
+			for (int i = 0; i < xs.length; i++) {
+				Array.set(points, i, constructor.invoke(xs[i], ys[i]));
+			}
+			return new Input(points, xs, ys);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot create points", e);
+		}
+	}
+
+	/**
+	 * Points given to the engines, as a Point[] and as the coordinates it was created from.
+	 */
+	public static final class Input {
+		private final Object points;
+		private final int[] xs;
+		private final int[] ys;
+
+		private Input(Object points, int[] xs, int[] ys) {
+			this.points = points;
+			this.xs = xs;
+			this.ys = ys;
+		}
+	}
+
+	/**
+	 * Bound engine.
+	 */
+	public static final class Detector {
+		private final MethodHandle create;
+		private final MethodHandle count;
+		private final MethodHandle segments;
+
+		private Detector(MethodHandle create, MethodHandle count, MethodHandle segments) {
+			this.create = create;
+			this.count = count;
+			this.segments = segments;
+		}
+
+		/**
+		 * Runs the engine over the points.
+		 *
+		 * @param points input created by {@link Engine#points(int[], int[])}
+		 * @return the number of segments found
+		 */
+		public int numberOfSegments(Input points) throws Throwable {
+			Object engine = (Object) create.invokeExact(points);
+			return (int) count.invokeExact(engine);
+		}
+
+		/**
+		 * Runs the engine over the points.
+		 *
+		 * @param points input created by {@link Engine#points(int[], int[])}
+		 * @return the segments found, in the format of LineSegment.toString()
+		 */
+		public List<String> segments(Input points) throws Throwable {
+			Object engine = (Object) create.invokeExact(points);
+			Object[] found = (Object[]) segments.invokeExact(engine);
+			List<String> result = new ArrayList<>(found.length);
+			for (Object segment : found) {
+				result.add(segment.toString());
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package org.example.bench;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Shapes of generated input. Every workload generates exactly the requested number of distinct points.
+ */
+public enum Workload {
+	/**
+	 * Points drawn uniformly from a square, few collinear runs.
+	 */
+	UNIFORM {
+		@Override
+		void generate(Set<Long> points, int size, Random random) {
+			int range = Math.max(1 << 15, 4 * size);
+			while (points.size() < size) {
+				points.add(pack(random.nextInt(range), random.nextInt(range)));
+			}
+		}
+	},
+	/**
+	 * Points of a dense square grid, every point lies on many lines.
+	 */
+	GRID {
+		@Override
+		void generate(Set<Long> points, int size, Random random) {
+			int side = (int) Math.ceil(Math.sqrt(size));
+			for (int i = 0; points.size() < size; i++) {
+				points.add(pack(i % side, i / side));
+			}
+		}
+	},
+	/**
+	 * Many short lines of 4 to 8 points with random directions.
+	 */
+	LINES {
+		@Override
+		void generate(Set<Long> points, int size, Random random) {
+			int range = Math.max(1 << 15, 4 * size);
+			while (points.size() < size) {
+				int x = random.nextInt(range);
+				int y = random.nextInt(range);
+				int dx = random.nextInt(64) + 1;
+				int dy = random.nextInt(129) - 64;
+				int length = 4 + random.nextInt(5);
+				for (int i = 0; i < length && points.size() < size; i++) {
+					points.add(pack(x + i * dx, y + i * dy));
+				}
+			}
+		}
+	},
+	/**
+	 * Lines of 4 to 50 points with random directions and spacing, among as many uniform points.
+	 */
+	PLANTED_LINES {
+		@Override
+		void generate(Set<Long> points, int size, Random random) {
+			int range = Math.max(1 << 15, 16 * size);
+			while (points.size() < size / 2) {
+				plantLine(points, size / 2, 4 + random.nextInt(47), range, random);
+			}
+			UNIFORM.generate(points, size, random);
+		}
+	},
+	/**
+	 * Runs of 3 collinear points followed by a distractor one unit off their line, and some lines of 4 points.
+	 */
+	NEAR_COLLINEAR {
+		@Override
+		void generate(Set<Long> points, int size, Random random) {
+			int range = Math.max(1 << 20, 16 * size);
+			while (points.size() < size) {
+				int x = random.nextInt(range);
+				int y = random.nextInt(range);
+				int dx = random.nextInt(4096) + 1;
+				int dy = random.nextInt(8193) - 4096;
+				boolean distractor = random.nextInt(4) != 0;
+				for (int i = 0; i < 4 && points.size() < size; i++) {
+					int offset = distractor && i == 3 ? 1 : 0;
+					points.add(pack(x + i * dx, y + i * dy + offset));
+				}
+			}
+		}
+	},
+	/**
+	 * Lines of 4 points spanning nearly the whole int range, so that deltas between their points exceed 2^31,
+	 * half of them with the last point one unit off the line, where slopes differ by far less than double precision.
+	 */
+	EXTREME {
+		@Override
+		void generate(Set<Long> points, int size, Random random) {
+			int range = Math.max(1 << 15, 16 * size);
+			long maxStep = (0xFFFFFFFFL - range) / 3;
+			while (points.size() < size) {
+				long majorStep = maxStep - random.nextInt(range);
+				long minorStep = (long) (random.nextDouble() * 2 * maxStep) - maxStep;
+				long major = (long) Integer.MIN_VALUE + random.nextInt(range);
+				long minor = minorStep >= 0 ? (long) Integer.MIN_VALUE + random.nextInt(range)
+											: (long) Integer.MAX_VALUE - random.nextInt(range);
+				boolean distractor = random.nextBoolean();
+				boolean horizontal = random.nextBoolean();
+				for (int i = 0; i < 4 && points.size() < size; i++) {
+					long offset = distractor && i == 3 ? (minorStep >= 0 ? -1 : 1) : 0;
+					int a = (int) (major + i * majorStep);
+					int b = (int) (minor + i * minorStep + offset);
+					points.add(horizontal ? pack(a, b) : pack(b, a));
+				}
+			}
+		}
+	},
+	/**
+	 * All points on a single line.
+	 */
+	ONE_LINE {
+		@Override
+		void generate(Set<Long> points, int size, Random random) {
+			for (int i = 0; i < size; i++) {
+				points.add(pack(i, 2 * i + 1));
+			}
+		}
+	};
+
+	abstract void generate(Set<Long> points, int size, Random random);
+
+	/**
+	 * Generates the points.
+	 *
+	 * @return x-coordinates in the first array and y-coordinates in the second one
+	 */
+	public int[][] generate(int size, long seed) {
+		Set<Long> points = new LinkedHashSet<>();
+		generate(points, size, new Random(seed));
+		int[][] coordinates = new int[2][size];
+		int i = 0;
+		for (long point : points) {
+			coordinates[0][i] = (int) (point >> 32);
+			coordinates[1][i++] = (int) point;
+		}
+		return coordinates;
+	}
+
+	/**
+	 * Adds up to length points of a line with a random direction, starting within [0, range) in both coordinates.
+	 */
+	private static void plantLine(Set<Long> points, int size, int length, int range, Random random) {
+		int x = random.nextInt(range);
+		int y = random.nextInt(range);
+		int dx = random.nextInt(32);
+		int dy = random.nextInt(65) - 32;
+		if (dx == 0 && dy <= 0) {
+			dy = 1 + random.nextInt(32);
+		}
+		for (int i = 0; i < length && points.size() < size; i++) {
+			points.add(pack(x + i * dx, y + i * dy));
+		}
+	}
+
+	private static long pack(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,255 @@
+package org.example.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+
+/**
+ * Local service finding collinear points for many concurrent requests, see {@link Protocol}.
+ *
+ * Every connection, and every request read from standard input, is served on its own virtual thread,
+ * so waiting for input or for the detector does not hold a platform thread. Detection itself is CPU bound
+ * and runs in a fork/join pool of parallelism threads.
+ *
+ * Backpressure. At most maxPending requests are detected or wait for the pool at once. A virtual thread waiting
+ * for a slot stops reading its input: a connection is read only after its previous response is written,
+ * so clients are slowed down by TCP flow control, and standard input is not read further until a response is written.
+ * At most maxConnections connections are served at once, further ones wait in the backlog of the server socket.
+ */
+public final class CollinearService implements AutoCloseable {
+	static final int MAX_POINTS = 1 << 20;
+	static final int MAX_CONNECTIONS = 1024;
+	private static final Future<String> END = CompletableFuture.completedFuture(null);
+	private final BiFunction<int[], int[], String[]> detector;
+	private final ForkJoinPool pool;
+	private final Semaphore slots;
+	private final Semaphore connections;
+	private final int maxPending;
+	private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * @param parallelism number of threads detecting segments
+	 * @param maxPending number of requests detected or waiting for the pool at once
+	 * @throws IllegalArgumentException if any of the arguments is less than 1
+	 */
+	public CollinearService(int parallelism, int maxPending) {
+		this(parallelism, maxPending, MAX_CONNECTIONS, Detector.bind()::segments);
+	}
+
+	/**
+	 * @param maxConnections number of connections served at once
+	 * @param detector finds the segments of the coordinates, as text
+	 */
+	CollinearService(int parallelism, int maxPending, int maxConnections, BiFunction<int[], int[], String[]> detector) {
+		if (parallelism < 1 || maxPending < 1 || maxConnections < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.detector = detector;
+		pool = new ForkJoinPool(parallelism);
+		slots = new Semaphore(maxPending);
+		connections = new Semaphore(maxConnections);
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * Serves requests from standard input, or from local connections to the given port.
+	 * Usage: java -jar service.jar [port]
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length > 1) {
+			System.err.println("Usage: java -jar service.jar [port]");
+			System.exit(1);
+		}
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		try (CollinearService service = new CollinearService(parallelism, parallelism * 4)) {
+			if (args.length == 0) {
+				service.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+							  new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+				return;
+			}
+			try (ServerSocket server = new ServerSocket(Integer.parseInt(args[0]), 50, InetAddress.getLoopbackAddress())) {
+				service.serve(server);
+			}
+		}
+	}
+
+	/**
+	 * Serves connections until the server socket is closed, each one on its own virtual thread.
+	 * A connection is accepted only when fewer than maxConnections are served, until then it waits in the backlog.
+	 *
+	 * @param server
+	 * @throws IOException if accepting a connection fails
+	 */
+	public void serve(ServerSocket server) throws IOException, InterruptedException {
+		while (true) {
+			connections.acquire();
+			Socket socket;
+			try {
+				socket = server.accept();
+			} catch (IOException e) {
+				connections.release();
+				if (e instanceof SocketException && server.isClosed()) {
+					return;
+				}
+				throw e;
+			}
+			try {
+				virtualThreads.submit(() -> serve(socket));
+			} catch (RejectedExecutionException e) {
+				connections.release();
+				socket.close();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Frees the connection slot once the socket is closed.
+	 */
+	private Void serve(Socket socket) throws IOException, InterruptedException {
+		try {
+			return serveConnection(socket);
+		} finally {
+			connections.release();
+		}
+	}
+
+	private Void serveConnection(Socket socket) throws IOException, InterruptedException {
+		try (socket;
+			 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			 Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			while (true) {
+				Protocol.Request request;
+				try {
+					request = Protocol.read(in, MAX_POINTS);
+				} catch (IOException e) {
+					out.write(Protocol.error(e.getMessage()));
+					return null;
+				}
+				if (request == null) {
+					return null;
+				}
+				slots.acquire();
+				try {
+					out.write(respond(request));
+				} finally {
+					slots.release();
+				}
+				out.flush();
+			}
+		}
+	}
+
+	/**
+	 * Serves requests read from the input until its end, each one on its own virtual thread.
+	 * Responses are written in the order of the requests. A malformed request gets an error response
+	 * and ends the input, as the following lines cannot be told apart.
+	 *
+	 * @param in
+	 * @param out
+	 * @throws IOException if the input cannot be read or the output written
+	 */
+	public void serve(BufferedReader in, Writer out) throws IOException, InterruptedException {
+		BlockingQueue<Future<String>> responses = new ArrayBlockingQueue<>(maxPending + 1);
+		Future<Void> writer = virtualThreads.submit(() -> write(responses, out));
+		try {
+			Protocol.Request request;
+			while ((request = Protocol.read(in, MAX_POINTS)) != null) {
+				Protocol.Request next = request;
+				slots.acquire();
+				responses.put(virtualThreads.submit(() -> respond(next)));
+			}
+		} catch (IOException e) {
+			slots.acquire();
+			responses.put(CompletableFuture.completedFuture(Protocol.error(e.getMessage())));
+		}
+		responses.put(END);
+		try {
+			writer.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * A slot is freed only once its response is written, so responses waiting for a slow one stay bounded.
+	 * A failed response gets an error line. Once the output fails, responses are still taken and their slots freed
+	 * until the end of the input, so reading never waits for a writer which is gone, and the failure is thrown then.
+	 */
+	private Void write(BlockingQueue<Future<String>> responses, Writer out) throws IOException, InterruptedException {
+		IOException failure = null;
+		for (Future<String> response = responses.take(); response != END; response = responses.take()) {
+			try {
+				String text = textOf(response);
+				if (failure == null) {
+					out.write(text);
+					out.flush();
+				}
+			} catch (IOException e) {
+				failure = e;
+			} finally {
+				slots.release();
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return null;
+	}
+
+	private static String textOf(Future<String> response) throws InterruptedException {
+		try {
+			return response.get();
+		} catch (ExecutionException e) {
+			return Protocol.error("detection failed");
+		}
+	}
+
+	/**
+	 * Finds the segments in the fork/join pool, the calling virtual thread waits without holding a platform thread.
+	 * A failed detection gets an error response, so it ends neither the input nor the connection.
+	 */
+	private String respond(Protocol.Request request) {
+		try {
+			return Protocol.segments(CompletableFuture.supplyAsync(() -> detector.apply(request.xs, request.ys), pool)
+												.join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IllegalArgumentException) {
+				return Protocol.error("repeated point");
+			}
+			return Protocol.error("detection failed");
+		}
+	}
+
+	/**
+	 * Stops serving, pending requests are abandoned.
+	 */
+	@Override
+	public void close() {
+		virtualThreads.shutdownNow();
+		pool.shutdownNow();
+	}
+}
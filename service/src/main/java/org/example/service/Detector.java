@@ -0,0 +1,67 @@
+package org.example.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Fast collinear points engine bound through method handles.
+ *
+ * The engine lives in the unnamed package of the collinear artifact, which cannot be referenced from a named package,
+ * so it is bound once, as in the benchmarks. Segments are returned as text, in the format of LineSegment.toString().
+ */
+final class Detector {
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+	private final MethodHandle create;
+	private final MethodHandle segments;
+
+	private Detector(MethodHandle create, MethodHandle segments) {
+		this.create = create;
+		this.segments = segments;
+	}
+
+	/**
+	 * Binds the engine.
+	 *
+	 * @return the detector
+	 * @throws IllegalStateException if the engine is not on the class path
+	 */
+	static Detector bind() {
+		try {
+			Class<?> engineClass = Class.forName("FastCollinearPoints");
+			Class<?> segmentsClass = Class.forName("[LLineSegment;");
+			MethodHandle create = LOOKUP.findConstructor(engineClass, methodType(void.class, int[].class, int[].class))
+					.asType(methodType(Object.class, int[].class, int[].class));
+			MethodHandle segments = LOOKUP.findVirtual(engineClass, "segments", methodType(segmentsClass))
+					.asType(methodType(Object[].class, Object.class));
+			return new Detector(create, segments);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot bind the engine", e);
+		}
+	}
+
+	/**
+	 * Finds all line segments containing 4 or more points.
+	 *
+	 * @param xs x-coordinates of the points
+	 * @param ys y-coordinates of the points
+	 * @return the segments as text
+	 * @throws IllegalArgumentException if the arrays contain a repeated point
+	 */
+	String[] segments(int[] xs, int[] ys) {
+		try {
+			Object engine = (Object) create.invokeExact(xs, ys);
+			Object[] found = (Object[]) segments.invokeExact(engine);
+			String[] result = new String[found.length];
+			for (int i = 0; i < found.length; i++) {
+				result[i] = found[i].toString();
+			}
+			return result;
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
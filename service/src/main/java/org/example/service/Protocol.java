@@ -0,0 +1,94 @@
+package org.example.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Line based protocol of the service.
+ *
+ * A request is a point set in the algs4 format: a line with the number of points n, then n lines with x and y.
+ * A response is a line with the number of segments m, then m lines with one segment each,
+ * or a single line starting with "error: " if the request could not be served.
+ */
+final class Protocol {
+	static final String ERROR = "error: ";
+
+	private Protocol() {
+	}
+
+	/**
+	 * Point set of a request.
+	 */
+	static final class Request {
+		final int[] xs;
+		final int[] ys;
+
+		private Request(int[] xs, int[] ys) {
+			this.xs = xs;
+			this.ys = ys;
+		}
+	}
+
+	/**
+	 * Reads the next request. Blank lines between requests are skipped.
+	 *
+	 * @param in
+	 * @param maxPoints the biggest point set accepted
+	 * @return the request or null at the end of input
+	 * @throws IOException if the request is malformed or too big, the rest of the input cannot be read then
+	 */
+	static Request read(BufferedReader in, int maxPoints) throws IOException {
+		String line = in.readLine();
+		while (line != null && line.isBlank()) {
+			line = in.readLine();
+		}
+		if (line == null) {
+			return null;
+		}
+		int size = parse(line.strip());
+		if (size < 0 || size > maxPoints) {
+			throw new IOException("number of points out of range: " + size);
+		}
+		int[] xs = new int[size];
+		int[] ys = new int[size];
+		for (int i = 0; i < size; i++) {
+			line = in.readLine();
+			if (line == null) {
+				throw new IOException("unexpected end of input");
+			}
+			String[] coordinates = line.strip().split("\\s+");
+			if (coordinates.length != 2) {
+				throw new IOException("expected x and y: " + line);
+			}
+			xs[i] = parse(coordinates[0]);
+			ys[i] = parse(coordinates[1]);
+		}
+		return new Request(xs, ys);
+	}
+
+	private static int parse(String value) throws IOException {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IOException("not an integer: " + value);
+		}
+	}
+
+	/**
+	 * @return the response with the segments found
+	 */
+	static String segments(String[] segments) {
+		StringBuilder response = new StringBuilder().append(segments.length).append('\n');
+		for (String segment : segments) {
+			response.append(segment).append('\n');
+		}
+		return response.toString();
+	}
+
+	/**
+	 * @return the response to a request which could not be served
+	 */
+	static String error(String message) {
+		return ERROR + message + '\n';
+	}
+}
@@ -0,0 +1,234 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CollinearServiceTest {
+	private static final String LINE = "4\n1 1\n2 2\n3 3\n4 4\n";
+	private static final String LINE_RESPONSE = "1\n(1, 1) -> (4, 4)\n";
+
+	@Test
+	public void init_invalidInputs() {
+		assertThatThrownBy(() -> new CollinearService(0, 1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new CollinearService(1, 0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new CollinearService(1, 1, 0, Detector.bind()::segments))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void serve_input_respondsInOrder() throws Exception {
+		//GIVEN
+		StringBuilder requests = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			requests.append(i % 3 == 0 ? "3\n0 0\n1 0\n2 0\n" : LINE).append('\n');
+			expected.append(i % 3 == 0 ? "0\n" : LINE_RESPONSE);
+		}
+		requests.append("2\n5 5\n5 5\n");
+		expected.append("error: repeated point\n");
+		StringWriter out = new StringWriter();
+		//WHEN
+		try (CollinearService testee = new CollinearService(2, 3)) {
+			testee.serve(new BufferedReader(new StringReader(requests.toString())), out);
+		}
+		//THEN
+		assertThat(out.toString()).isEqualTo(expected.toString());
+	}
+
+	@Test
+	public void serve_input_stopsAtMalformedRequest() throws Exception {
+		//GIVEN
+		String requests = LINE + "2\n1 x\n" + LINE;
+		StringWriter out = new StringWriter();
+		//WHEN
+		try (CollinearService testee = new CollinearService(1, 1)) {
+			testee.serve(new BufferedReader(new StringReader(requests)), out);
+		}
+		//THEN
+		assertThat(out.toString()).isEqualTo(LINE_RESPONSE + "error: not an integer: x\n");
+	}
+
+	@Test
+	public void serve_input_continuesAfterFailedResponse() throws Exception {
+		//GIVEN
+		StringBuilder requests = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 12; i++) {
+			requests.append(i % 4 == 1 ? "5\n0 0\n1 0\n2 0\n3 0\n4 0\n" : LINE);
+			expected.append(i % 4 == 1 ? "error: detection failed\n" : LINE_RESPONSE);
+		}
+		StringWriter out = new StringWriter();
+		//WHEN
+		try (CollinearService testee = new CollinearService(2, 2, 1, failingOnFivePoints())) {
+			testee.serve(new BufferedReader(new StringReader(requests.toString())), out);
+		}
+		//THEN
+		assertThat(out.toString()).isEqualTo(expected.toString());
+	}
+
+	@Test
+	public void serve_input_failsAfterInputWhenOutputFails() {
+		//GIVEN
+		StringBuilder requests = new StringBuilder();
+		for (int i = 0; i < 12; i++) {
+			requests.append(LINE);
+		}
+		Writer out = new Writer() {
+			@Override
+			public void write(char[] buffer, int offset, int length) throws IOException {
+				throw new IOException("closed");
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		//WHEN
+		try (CollinearService testee = new CollinearService(1, 1)) {
+			//THEN
+			assertThatThrownBy(() -> testee.serve(new BufferedReader(new StringReader(requests.toString())), out))
+					.isInstanceOf(IOException.class)
+					.hasMessage("closed");
+		}
+	}
+
+	@Test
+	public void serve_connections() throws Exception {
+		try (CollinearService testee = new CollinearService(2, 2);
+			 ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			CompletableFuture<Void> serving = serving(testee, server);
+			List<CompletableFuture<String>> clients = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				clients.add(CompletableFuture.supplyAsync(() -> request(server.getLocalPort(), LINE + LINE)));
+			}
+			for (CompletableFuture<String> client : clients) {
+				assertThat(client.get()).isEqualTo(LINE_RESPONSE + LINE_RESPONSE);
+			}
+			server.close();
+			serving.get();
+		}
+	}
+
+	@Test
+	public void serve_connection_continuesAfterFailedResponse() throws Exception {
+		try (CollinearService testee = new CollinearService(1, 1, 1, failingOnFivePoints());
+			 ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			//GIVEN
+			CompletableFuture<Void> serving = serving(testee, server);
+			//WHEN
+			String response = request(server.getLocalPort(), LINE + "5\n0 0\n1 0\n2 0\n3 0\n4 0\n" + LINE);
+			//THEN
+			assertThat(response).isEqualTo(LINE_RESPONSE + "error: detection failed\n" + LINE_RESPONSE);
+			server.close();
+			serving.get();
+		}
+	}
+
+	@Test
+	public void serve_connections_waitForFreeConnection() throws Exception {
+		try (CollinearService testee = new CollinearService(1, 1, 1, Detector.bind()::segments);
+			 ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			//GIVEN
+			CompletableFuture<Void> serving = serving(testee, server);
+			Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+			//WHEN
+			CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> request(server.getLocalPort(), LINE));
+			//THEN
+			assertThatThrownBy(() -> second.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+			first.close();
+			assertThat(second.get()).isEqualTo(LINE_RESPONSE);
+			server.close();
+			serving.get();
+		}
+	}
+
+	@Test
+	public void serve_connections_leaveFurtherOnesInBacklog() throws Exception {
+		AtomicInteger accepted = new AtomicInteger();
+		try (CollinearService testee = new CollinearService(1, 1, 1, Detector.bind()::segments);
+			 ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress()) {
+				 @Override
+				 public Socket accept() throws IOException {
+					 Socket socket = super.accept();
+					 accepted.incrementAndGet();
+					 return socket;
+				 }
+			 }) {
+			//GIVEN
+			CompletableFuture<Void> serving = serving(testee, server);
+			Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+			//WHEN
+			CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> request(server.getLocalPort(), LINE));
+			//THEN
+			assertThatThrownBy(() -> second.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+			assertThat(accepted).hasValue(1);
+			first.close();
+			assertThat(second.get()).isEqualTo(LINE_RESPONSE);
+			assertThat(accepted).hasValue(2);
+			server.close();
+			serving.get();
+		}
+	}
+
+	private static BiFunction<int[], int[], String[]> failingOnFivePoints() {
+		Detector engine = Detector.bind();
+		return (xs, ys) -> {
+			if (xs.length == 5) {
+				throw new IllegalStateException();
+			}
+			return engine.segments(xs, ys);
+		};
+	}
+
+	private static CompletableFuture<Void> serving(CollinearService testee, ServerSocket server) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				testee.serve(server);
+			} catch (IOException | InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	private static String request(int port, String requests) {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+			out.write(requests);
+			out.flush();
+			socket.shutdownOutput();
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			StringBuilder response = new StringBuilder();
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				response.append(line).append('\n');
+			}
+			return response.toString();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,277 @@
+import java.util.Arrays;
+
+/**
+ * Scan of anchor points.
+ * For every anchor the points after it (or all the other points) are sorted by slope and runs of minPoints - 1
+ * or more equal slopes are passed to the sink.
+ *
+ * When only the points after the anchor are scanned, lines of the runs found are remembered for their points.
+ * A later anchor on such a line would only find a part of it again, so the other points of the line are left out
+ * of its candidates, and the anchor is not sorted at all when fewer than minPoints - 1 candidates are left.
+ */
+final class AnchorScan {
+	private final boolean allPoints;
+	private final int minRun;
+	private final RadixSort radixSort = new RadixSort();
+	private final Coverage coverage;
+	private final CollinearStats stats;
+	private Points points;
+	private SegmentSink sink;
+	private SlopeOrder slopeOrder;
+	private int[] candidates = new int[0];
+	private double[] slopes = new double[0];
+	private int[] auxCandidates = new int[0];
+	private double[] auxSlopes = new double[0];
+
+	/**
+	 * Scratch buffers are sized once for the biggest anchor and reused, so scanning does not allocate.
+	 */
+	AnchorScan(Points points, SegmentSink sink, boolean allPoints, int minPoints) {
+		this(points, sink, allPoints, minPoints, null);
+	}
+
+	/**
+	 * @param stats measures the phases of every anchor, null if they are not measured
+	 */
+	AnchorScan(Points points, SegmentSink sink, boolean allPoints, int minPoints, CollinearStats stats) {
+		this.allPoints = allPoints;
+		this.stats = stats;
+		minRun = minPoints - 1;
+		coverage = allPoints ? null : new Coverage();
+		reset(points, sink);
+	}
+
+	/**
+	 * Makes the scan ready for other points, keeping the scratch buffers which are big enough.
+	 */
+	void reset(Points points, SegmentSink sink) {
+		this.points = points;
+		this.sink = sink;
+		slopeOrder = stats == null ? new SlopeOrder(points) : new SlopeOrder.Counting(points, stats);
+		if (coverage != null) {
+			coverage.reset(points.size());
+		}
+		if (candidates.length < points.size()) {
+			candidates = new int[points.size()];
+			slopes = new double[points.size()];
+			auxCandidates = new int[points.size()];
+			auxSlopes = new double[points.size()];
+		}
+	}
+
+	/**
+	 * The smallest point of a segment has minPoints - 1 points after it, so later anchors are never scanned.
+	 * @return the number of anchors to scan
+	 */
+	int anchors() {
+		return Math.max(0, points.size() - minRun);
+	}
+
+	/**
+	 * Scans anchors from (including) to (excluding).
+	 * Measured anchors take their own path, so the unmeasured scan neither checks nor updates the stats.
+	 */
+	void scan(int from, int to) {
+		if (stats != null) {
+			for (int i = from; i < to; i++) {
+				measureLineSegmentsForPoint(i);
+			}
+			return;
+		}
+		for (int i = from; i < to; i++) {
+			calculateLineSegmentsForPoint(i);
+		}
+	}
+
+	private void calculateLineSegmentsForPoint(int i) {
+		int size = slopesOf(i);
+		if (size < 0) {
+			return;
+		}
+		radixSort.sort(slopes, candidates, auxSlopes, auxCandidates, size);
+		calculateLineSegmentsFor(i, size);
+	}
+
+	/**
+	 * Same steps as {@link #calculateLineSegmentsForPoint(int)} with a timestamp after each of them.
+	 */
+	private void measureLineSegmentsForPoint(int i) {
+		long begin = System.nanoTime();
+		int size = measureSlopesOf(i);
+		long slopesDone = System.nanoTime();
+		stats.slopesNanos += slopesDone - begin;
+		if (size < 0) {
+			stats.skippedAnchors++;
+			return;
+		}
+		stats.anchors++;
+		stats.candidates += size;
+		radixSort.sort(slopes, candidates, auxSlopes, auxCandidates, size);
+		long sortDone = System.nanoTime();
+		stats.sortNanos += sortDone - slopesDone;
+		calculateLineSegmentsFor(i, size);
+		stats.scanNanos += System.nanoTime() - sortDone;
+	}
+
+	/**
+	 * Fills candidates of the anchor and their slope keys.
+	 * @return the number of candidates, -1 if the anchor is left out
+	 */
+	private int slopesOf(int i) {
+		if (allPoints) {
+			return points.slopesAround(i, candidates, slopes);
+		}
+		return slopesFrom(i, coverage.exclude(i));
+	}
+
+	/**
+	 * Same as {@link #slopesOf(int)}, counting the candidates pruned by lines found already.
+	 */
+	private int measureSlopesOf(int i) {
+		if (allPoints) {
+			return points.slopesAround(i, candidates, slopes);
+		}
+		int excluded = coverage.exclude(i);
+		stats.prunedCandidates += excluded;
+		return slopesFrom(i, excluded);
+	}
+
+	private int slopesFrom(int i, int excluded) {
+		if (points.size() - 1 - i - excluded < minRun) {
+			return -1;
+		}
+		return points.slopesFrom(i, coverage.excludedBy, candidates, slopes);
+	}
+
+	/**
+	 * Finds runs of equal slope keys. Keys are slopes rounded to double, so only runs long enough to form
+	 * a segment are checked with the exact comparison.
+	 */
+	private void calculateLineSegmentsFor(int thePoint, int size) {
+		int start = 0;
+		while (start <= size - minRun) {
+			int end = start + 1;
+			while (end < size && slopes[end] == slopes[start]) {
+				end++;
+			}
+			if (end - start >= minRun) {
+				calculateExactLineSegmentsFor(thePoint, start, end - 1);
+			}
+			start = end;
+		}
+	}
+
+	/**
+	 * Rounding is monotonic, so distinct slopes which share a key all lie in the same run of keys.
+	 * Such a run is sorted again with the exact comparison before it is split into segments.
+	 */
+	private void calculateExactLineSegmentsFor(int thePoint, int lo, int hi) {
+		slopeOrder.anchor = thePoint;
+		if (!haveEqualSlopes(lo, hi)) {
+			MergeSort.sort(candidates, auxCandidates, lo, hi, slopeOrder);
+		}
+		int start = lo;
+		int end = start + minRun - 1;
+		while (end <= hi) {
+			if (!slopeOrder.isEqual(candidates[start], candidates[end])) {
+				start++; end++;
+				continue;
+			}
+			int lastGood = end;
+			while (end <= hi && slopeOrder.isEqual(candidates[start], candidates[end])) {
+				lastGood = end++;
+			}
+			sink.addSegment(thePoint, candidates, start, lastGood);
+			if (coverage != null) {
+				coverage.cover(candidates, start, lastGood);
+			}
+			start = lastGood + 1;
+			end = start + minRun - 1;
+		}
+	}
+
+	private boolean haveEqualSlopes(int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			if (!slopeOrder.isEqual(candidates[lo], candidates[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Lines found so far, kept for each of their points as linked lists in primitive arrays.
+	 */
+	private static class Coverage {
+		private static final int EMPTY = -1;
+		private int[] firstEntries = new int[0];
+		private int[] excludedBy = new int[0];
+		private int[] nextEntries = new int[16];
+		private int[] entryLines = new int[16];
+		private int entriesSize = 0;
+		private int[] lineStarts = new int[16];
+		private int[] lineMembers = new int[16];
+		private int linesSize = 0;
+		private int membersSize = 0;
+
+		private void reset(int size) {
+			if (firstEntries.length < size) {
+				firstEntries = new int[size];
+				excludedBy = new int[size];
+			}
+			Arrays.fill(firstEntries, 0, size, EMPTY);
+			Arrays.fill(excludedBy, 0, size, EMPTY);
+			entriesSize = 0;
+			linesSize = 0;
+			membersSize = 0;
+		}
+
+		/**
+		 * Remembers the line of the run for each point of the run, the anchor is never scanned again.
+		 */
+		private void cover(int[] candidates, int start, int end) {
+			int length = end - start + 1;
+			if (linesSize + 1 == lineStarts.length) {
+				lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+			}
+			if (membersSize + length > lineMembers.length) {
+				lineMembers = Arrays.copyOf(lineMembers, Math.max(lineMembers.length * 2, membersSize + length));
+			}
+			if (entriesSize + length > entryLines.length) {
+				int capacity = Math.max(entryLines.length * 2, entriesSize + length);
+				entryLines = Arrays.copyOf(entryLines, capacity);
+				nextEntries = Arrays.copyOf(nextEntries, capacity);
+			}
+			int line = linesSize++;
+			lineStarts[line] = membersSize;
+			for (int i = start; i <= end; i++) {
+				int point = candidates[i];
+				lineMembers[membersSize++] = point;
+				entryLines[entriesSize] = line;
+				nextEntries[entriesSize] = firstEntries[point];
+				firstEntries[point] = entriesSize++;
+			}
+			lineStarts[linesSize] = membersSize;
+		}
+
+		/**
+		 * Marks the points after the anchor lying on lines already found through it.
+		 * Such lines share only the anchor, so no point is marked twice.
+		 * @return the number of marked points
+		 */
+		private int exclude(int anchor) {
+			int excluded = 0;
+			for (int entry = firstEntries[anchor]; entry != EMPTY; entry = nextEntries[entry]) {
+				int line = entryLines[entry];
+				for (int i = lineStarts[line]; i < lineStarts[line + 1]; i++) {
+					int point = lineMembers[i];
+					if (point > anchor) {
+						excludedBy[point] = anchor;
+						excluded++;
+					}
+				}
+			}
+			return excluded;
+		}
+	}
+}
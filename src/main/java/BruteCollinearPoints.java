@@ -1,4 +1,8 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Brute force. Write a program BruteCollinearPoints.java that examines 4 points at a time and checks whether they all lie on the same line
@@ -27,6 +31,49 @@ public class BruteCollinearPoints {
 		calculateLineSegments();
 	}
 
+	private BruteCollinearPoints(Point[] points, ForkJoinPool pool) {
+		this.points = new Points(points);
+		calculateLineSegments(pool);
+	}
+
+	/**
+	 * Finds the same line segments as {@link #BruteCollinearPoints(Point[])}, in the same order, with an optimized
+	 * brute force: for every first point p the deltas to the points after it are computed once, collinearity of
+	 * p, q and r is checked before the fourth point is looked for, and first points are processed in parallel.
+	 *
+	 * Both modes check collinearity with the same exact integer cross products, see {@link Slopes}.
+	 *
+	 * @param points
+	 * @param pool pool that runs the first points
+	 * @return the calculated collinear points
+	 * @throws IllegalArgumentException if any of the arguments is null, if any point in the array is null,
+	 * or if the array contains a repeated point.
+	 */
+	public static BruteCollinearPoints optimized(Point[] points, ForkJoinPool pool) {
+		if (points == null || pool == null) {
+			throw new IllegalArgumentException();
+		}
+		return new BruteCollinearPoints(points, pool);
+	}
+
+	/**
+	 * Finds all line segments containing 4 points of a text file in the algs4 format.
+	 *
+	 * @param file
+	 * @return the calculated collinear points
+	 * @throws IOException if the file cannot be read or is malformed
+	 * @throws IllegalArgumentException if the file contains a repeated point.
+	 * @see PointsFile#readText(Path)
+	 */
+	public static BruteCollinearPoints fromFile(Path file) throws IOException {
+		PointsFile pointsFile = PointsFile.readText(file);
+		Point[] points = new Point[pointsFile.size()];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new Point(pointsFile.xs()[i], pointsFile.ys()[i]);
+		}
+		return new BruteCollinearPoints(points);
+	}
+
 	private void calculateLineSegments() {
 		segments = new LineSegments();
 		if (points.size() < 4) {
@@ -44,6 +91,23 @@ public class BruteCollinearPoints {
 		}
 	}
 
+	/**
+	 * Segments of every first point are collected separately and joined in the order of the nested loops.
+	 */
+	private void calculateLineSegments(ForkJoinPool pool) {
+		segments = new LineSegments();
+		if (points.size() < 4) {
+			return;
+		}
+		LineSegments[] found = new LineSegments[points.size() - 3];
+		pool.invoke(new FirstPointTask(points, found, 0, found.length));
+		for (LineSegments firstPointSegments : found) {
+			for (LineSegment segment : firstPointSegments.getSegments()) {
+				segments.add(segment);
+			}
+		}
+	}
+
 	// the number of line segments
 	public int numberOfSegments() {
 		return segments.getSize();
@@ -105,6 +169,61 @@ public class BruteCollinearPoints {
 		}
 	}
 
+	/**
+	 * Splits first points between fork/join workers.
+	 */
+	private static class FirstPointTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Points points;
+		private final LineSegments[] found;
+		private final int from;
+		private final int to;
+
+		private FirstPointTask(Points points, LineSegments[] found, int from, int to) {
+			this.points = points;
+			this.found = found;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = from + (to - from) / 2;
+				invokeAll(new FirstPointTask(points, found, from, mid), new FirstPointTask(points, found, mid, to));
+				return;
+			}
+			found[from] = segmentsFrom(from);
+		}
+
+		/**
+		 * Same nested loops as the plain brute force, with the fourth loop entered only for collinear p, q and r.
+		 */
+		private LineSegments segmentsFrom(int i) {
+			LineSegments segments = new LineSegments();
+			Point p = points.get(i);
+			long[] dxs = new long[points.size()];
+			long[] dys = new long[points.size()];
+			for (int j = i+1; j < points.size(); j++) {
+				dxs[j] = (long) points.get(j).x() - p.x();
+				dys[j] = (long) points.get(j).y() - p.y();
+			}
+			for (int j = i+1; j < points.size(); j++) {
+				for (int k = j+1; k < points.size(); k++) {
+					if (Slopes.compare(dxs[j], dys[j], dxs[k], dys[k]) != 0) {
+						continue;
+					}
+					for (int l = k+1; l < points.size(); l++) {
+						if (Slopes.compare(dxs[j], dys[j], dxs[l], dys[l]) == 0) {
+							segments.add(new LineSegment(p, points.get(l)));
+						}
+					}
+				}
+			}
+			return segments;
+		}
+	}
+
 	/**
 	 * Line segments collection
 	 */
@@ -127,11 +246,18 @@ public class BruteCollinearPoints {
 		}
 
 		private void tryAdding(Point p, Point q, Point r, Point s) {
-			if (p.slopeTo(q) == p.slopeTo(r) && p.slopeTo(r) == p.slopeTo(s)) {
+			if (isCollinear(p, q, r) && isCollinear(p, r, s)) {
 				add(new LineSegment(p,s));
 			}
 		}
 
+		/**
+		 * Slopes from p are compared exactly, see {@link Slopes}.
+		 */
+		private static boolean isCollinear(Point p, Point q, Point r) {
+			return Slopes.compare(p.x(), p.y(), q.x(), q.y(), r.x(), r.y()) == 0;
+		}
+
 		private void add(LineSegment lineSegment) {
 			if (segments.length == size) {
 				increaseSize();
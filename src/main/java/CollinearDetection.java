@@ -0,0 +1,98 @@
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Handle of a detection running in the background, see {@link FastCollinearPoints#async(Point[], Duration, Executor)}.
+ *
+ * Anchors are scanned in order and the stop conditions are checked before each of them.
+ * Every segment found by a scanned anchor starts at the smallest point of its line, so a detection stopped early
+ * still returns maximal segments, only some lines are missing.
+ */
+public final class CollinearDetection {
+	private final Points points;
+	private final Segments segments;
+	private final AnchorScan scan;
+	private final int anchors;
+	private final long startNanos;
+	private final long timeoutNanos;
+	private final CompletableFuture<FastCollinearPoints> result = new CompletableFuture<>();
+	private volatile int anchorsDone = 0;
+	private volatile boolean cancelled = false;
+
+	CollinearDetection(Points points, Duration deadline) {
+		this.points = points;
+		segments = new Segments(points);
+		scan = new AnchorScan(points, segments, false, FastCollinearPoints.MIN_POINTS);
+		anchors = scan.anchors();
+		startNanos = System.nanoTime();
+		timeoutNanos = toNanos(deadline);
+	}
+
+	private static long toNanos(Duration deadline) {
+		try {
+			return deadline.toNanos();
+		} catch (ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	void start(Executor executor) {
+		executor.execute(this::run);
+	}
+
+	private void run() {
+		try {
+			for (int i = 0; i < anchors && !isStopped(); i++) {
+				scan.scan(i, i + 1);
+				anchorsDone = i + 1;
+			}
+			result.complete(new FastCollinearPoints(points, segments));
+		} catch (Throwable e) {
+			result.completeExceptionally(e);
+		}
+	}
+
+	private boolean isStopped() {
+		return cancelled || result.isDone() || System.nanoTime() - startNanos >= timeoutNanos;
+	}
+
+	/**
+	 * Completes with the segments found when all anchors are scanned, or with those found so far when the detection
+	 * is cancelled or runs past its deadline. Cancelling the future itself stops the detection too.
+	 *
+	 * @return future of the calculated collinear points
+	 */
+	public CompletableFuture<FastCollinearPoints> result() {
+		return result;
+	}
+
+	/**
+	 * Asks the detection to stop before the next anchor. The result then holds the segments found so far.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return the number of anchors to scan
+	 */
+	public int anchors() {
+		return anchors;
+	}
+
+	/**
+	 * Anchors on lines already found are passed over quickly, so progress speeds up towards the end.
+	 * @return the number of anchors scanned so far
+	 */
+	public int anchorsDone() {
+		return anchorsDone;
+	}
+
+	/**
+	 * @return true if all anchors were scanned, so the result holds all segments
+	 */
+	public boolean isComplete() {
+		return anchorsDone == anchors;
+	}
+}
@@ -0,0 +1,310 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mutable set of points which keeps its maximal line segments containing 4 or more points up to date.
+ *
+ * Adding a point p works as one anchor of {@link FastCollinearPoints}: the points already in the index are sorted
+ * by the exact slope they make with p and each run of 3 or more equal slopes, together with p, lies on one line.
+ * A run of 4 or more points is a line already known, which is extended by p (so its segment is replaced),
+ * a run of 3 points makes a new line.
+ *
+ * Every line keeps its points in natural order, so removing a point shortens the lines going through it and drops
+ * those left with less than 4 points.
+ *
+ * Performance. The order of growth of the running time of add is n log n, remove takes time proportional to
+ * the number of points on the lines going through the removed point. Space is proportional to n plus
+ * the number of points on the line segments.
+ */
+public class CollinearIndex {
+	private final Map<Long, Integer> ids = new HashMap<>();
+	private final List<List<Line>> linesOfPoints = new ArrayList<>();
+	private final Set<Line> lines = new LinkedHashSet<>();
+	private final SlopeOrder slopeOrder = new SlopeOrder();
+	private final IntComparator naturalOrder = this::compare;
+	private long[] points = new long[16];
+	private int[] candidates = new int[16];
+	private int[] aux = new int[16];
+	private int size = 0;
+
+	/**
+	 * Creates an empty index.
+	 */
+	public CollinearIndex() {
+	}
+
+	/**
+	 * Creates an index of the points.
+	 *
+	 * @param inPoints
+	 * @throws IllegalArgumentException if the argument is null, if any point in the array is null,
+	 * or if the array contains a repeated point.
+	 */
+	public CollinearIndex(Point[] inPoints) {
+		if (inPoints == null) {
+			throw new IllegalArgumentException();
+		}
+		for (Point point : inPoints) {
+			add(point);
+		}
+	}
+
+	/**
+	 * Adds the point and updates the segments going through it.
+	 *
+	 * @param point
+	 * @throws IllegalArgumentException if the point is null or is already in the index
+	 */
+	public void add(Point point) {
+		if (point == null) {
+			throw new IllegalArgumentException();
+		}
+		long packed = Points.pack(point.x(), point.y());
+		if (ids.containsKey(packed)) {
+			throw new IllegalArgumentException();
+		}
+		int id = newId(packed);
+		int others = 0;
+		for (int i = 0; i < size; i++) {
+			if (i != id) {
+				candidates[others++] = i;
+			}
+		}
+		if (others >= 3) {
+			slopeOrder.anchor = id;
+			MergeSort.sort(candidates, aux, 0, others - 1, slopeOrder);
+			addLinesThrough(id, others);
+		}
+	}
+
+	/**
+	 * Removes the point and shortens or drops the segments going through it.
+	 *
+	 * @param point
+	 * @return true if the point was in the index
+	 * @throws IllegalArgumentException if the point is null
+	 */
+	public boolean remove(Point point) {
+		if (point == null) {
+			throw new IllegalArgumentException();
+		}
+		Integer id = ids.remove(Points.pack(point.x(), point.y()));
+		if (id == null) {
+			return false;
+		}
+		for (Line line : linesOfPoints.get(id)) {
+			line.remove(id);
+			if (line.size() < 4) {
+				dropLine(line);
+			}
+		}
+		moveLastTo(id);
+		return true;
+	}
+
+	private void dropLine(Line line) {
+		lines.remove(line);
+		for (int i = 0; i < line.size(); i++) {
+			linesOfPoints.get(line.members[i]).remove(line);
+		}
+	}
+
+	/**
+	 * Keeps ids dense by giving the id of the removed point to the last point.
+	 */
+	private void moveLastTo(int id) {
+		int last = --size;
+		if (id != last) {
+			points[id] = points[last];
+			ids.put(points[id], id);
+			List<Line> linesOfLast = linesOfPoints.get(last);
+			for (Line line : linesOfLast) {
+				line.rename(last, id);
+			}
+			linesOfPoints.set(id, linesOfLast);
+		}
+		linesOfPoints.remove(last);
+	}
+
+	private int newId(long packed) {
+		if (size == points.length) {
+			points = Arrays.copyOf(points, size * 2);
+			candidates = new int[size * 2];
+			aux = new int[size * 2];
+		}
+		int id = size++;
+		points[id] = packed;
+		ids.put(packed, id);
+		linesOfPoints.add(new ArrayList<>());
+		return id;
+	}
+
+	private void addLinesThrough(int id, int others) {
+		int start = 0;
+		while (start < others - 2) {
+			int end = start + 1;
+			while (end < others && slopeOrder.compare(candidates[start], candidates[end]) == 0) {
+				end++;
+			}
+			if (end - start >= 3) {
+				addLine(id, start, end - 1);
+			}
+			start = end;
+		}
+	}
+
+	/**
+	 * Adds the point to the line of the run of candidates between start and end (inclusive).
+	 */
+	private void addLine(int id, int start, int end) {
+		MergeSort.sort(candidates, aux, start, end, naturalOrder);
+		Line line = end - start >= 3 ? findLine(candidates[start], candidates[start + 1]) : null;
+		if (line == null) {
+			line = new Line();
+			for (int i = start; i <= end; i++) {
+				line.insert(candidates[i]);
+				linesOfPoints.get(candidates[i]).add(line);
+			}
+			lines.add(line);
+		}
+		line.insert(id);
+		linesOfPoints.get(id).add(line);
+	}
+
+	/**
+	 * Two points determine a line.
+	 * @return the line going through both points, null if there is none
+	 */
+	private Line findLine(int a, int b) {
+		for (Line line : linesOfPoints.get(a)) {
+			if (line.contains(b)) {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Number of points
+	 * @return the number of points in the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Number of line segments
+	 * @return 	the number of line segments
+	 */
+	public int numberOfSegments() {
+		return lines.size();
+	}
+
+	/**
+	 * Each maximal line segment containing 4 (or more) points of the index exactly once.
+	 * @return the line segments
+	 */
+	public LineSegment[] segments() {
+		LineSegment[] segments = new LineSegment[lines.size()];
+		int i = 0;
+		for (Line line : lines) {
+			segments[i++] = new LineSegment(toPoint(line.first()), toPoint(line.last()));
+		}
+		return segments;
+	}
+
+	private Point toPoint(int id) {
+		return new Point(Points.unpackX(points[id]), Points.unpackY(points[id]));
+	}
+
+	private int compare(int a, int b) {
+		return Long.compare(points[a], points[b]);
+	}
+
+	/**
+	 * Exact slope order of point ids with respect to the anchor point.
+	 */
+	private class SlopeOrder implements IntComparator {
+		private int anchor;
+
+		@Override
+		public int compare(int a, int b) {
+			return Slopes.compare(Points.unpackX(points[anchor]), Points.unpackY(points[anchor]),
+								  Points.unpackX(points[a]), Points.unpackY(points[a]),
+								  Points.unpackX(points[b]), Points.unpackY(points[b]));
+		}
+	}
+
+	/**
+	 * Points of a line, kept in natural order.
+	 */
+	private class Line {
+		private int[] members = new int[4];
+		private int membersSize = 0;
+
+		private int first() {
+			return members[0];
+		}
+
+		private int last() {
+			return members[membersSize - 1];
+		}
+
+		private int size() {
+			return membersSize;
+		}
+
+		private boolean contains(int id) {
+			return indexOf(id) >= 0;
+		}
+
+		private void insert(int id) {
+			if (membersSize == members.length) {
+				members = Arrays.copyOf(members, membersSize * 2);
+			}
+			int i = -indexOf(id) - 1;
+			System.arraycopy(members, i, members, i + 1, membersSize - i);
+			members[i] = id;
+			membersSize++;
+		}
+
+		private void remove(int id) {
+			int i = indexOf(id);
+			System.arraycopy(members, i + 1, members, i, membersSize - i - 1);
+			membersSize--;
+		}
+
+		/**
+		 * Replaces the id of a member, whose coordinates stay the same.
+		 */
+		private void rename(int id, int newId) {
+			members[indexOf(id)] = newId;
+		}
+
+		/**
+		 * Binary search in natural order.
+		 * @return index of the member, or (-(insertion point) - 1) if it is not a member
+		 */
+		private int indexOf(int id) {
+			int lo = 0;
+			int hi = membersSize - 1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				int cmp = CollinearIndex.this.compare(members[mid], id);
+				if (cmp < 0) {
+					lo = mid + 1;
+				} else if (cmp > 0) {
+					hi = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -(lo + 1);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Per-phase metrics of {@link FastCollinearPoints}, filled in when passed to its constructor.
+ *
+ * Phases are exclusive, so their times add up to the time of the constructor:
+ * validate (copying, sorting and checking the points), slopes (slope keys of the candidates of each anchor),
+ * sort (sorting the keys), scan (finding runs of equal keys and checking them exactly) and dedup (collecting segments).
+ * Without stats the engine takes no timestamps and counts nothing: the measured scan, comparisons and deduplication
+ * are separate code paths, chosen once per run.
+ *
+ * Values add up when the same stats are passed to many runs. Stats are not thread safe.
+ */
+public final class CollinearStats {
+	long validateNanos;
+	long slopesNanos;
+	long sortNanos;
+	long scanNanos;
+	long dedupNanos;
+	long anchors;
+	long skippedAnchors;
+	long candidates;
+	long comparisons;
+	long segments;
+	long prunedCandidates;
+	long duplicates;
+	long allocatedBytes;
+
+	public long validateNanos() {
+		return validateNanos;
+	}
+
+	public long slopesNanos() {
+		return slopesNanos;
+	}
+
+	public long sortNanos() {
+		return sortNanos;
+	}
+
+	public long scanNanos() {
+		return scanNanos;
+	}
+
+	public long dedupNanos() {
+		return dedupNanos;
+	}
+
+	/**
+	 * @return the number of anchors whose candidates were sorted by slope
+	 */
+	public long anchors() {
+		return anchors;
+	}
+
+	/**
+	 * @return the number of anchors left out because too few points after them are not on lines found already
+	 */
+	public long skippedAnchors() {
+		return skippedAnchors;
+	}
+
+	/**
+	 * @return the number of slope keys computed and sorted
+	 */
+	public long candidates() {
+		return candidates;
+	}
+
+	/**
+	 * @return the number of exact slope comparisons, made only within runs of equal slope keys
+	 */
+	public long comparisons() {
+		return comparisons;
+	}
+
+	/**
+	 * @return the number of segments found
+	 */
+	public long segments() {
+		return segments;
+	}
+
+	/**
+	 * Lines found through an anchor are not searched again from their other points: those points are left out of
+	 * the candidates of later anchors.
+	 * @return the number of candidates left out because their line was found already
+	 */
+	public long prunedCandidates() {
+		return prunedCandidates;
+	}
+
+	/**
+	 * @return the number of runs dropped when collected because they reach a line found already
+	 */
+	public long duplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return bytes allocated by the thread running the constructor, 0 if the JVM does not measure it
+	 */
+	public long allocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "validate=" + validateNanos + "ns slopes=" + slopesNanos + "ns sort=" + sortNanos
+				+ "ns scan=" + scanNanos + "ns dedup=" + dedupNanos + "ns anchors=" + anchors
+				+ " skippedAnchors=" + skippedAnchors + " candidates=" + candidates
+				+ " comparisons=" + comparisons + " segments=" + segments
+				+ " prunedCandidates=" + prunedCandidates + " duplicates=" + duplicates
+				+ " allocatedBytes=" + allocatedBytes;
+	}
+
+	/**
+	 * @return bytes allocated so far by the current thread, 0 if the JVM does not measure it
+	 */
+	static long threadAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+			if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+				return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return 0;
+	}
+}
@@ -1,5 +1,13 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 /**
  * Remarkably, it is possible to solve the problem much faster than the brute-force solution described above. Given a point p,
@@ -20,7 +28,9 @@ import java.util.Comparator;
  * if the input has 5 or more collinear points.
  */
 public class FastCollinearPoints {
+	static final int MIN_POINTS = 4;
 	private final Points points;
+	private final int minPoints;
 	private final Segments segments;
 
 	/**
@@ -31,308 +41,408 @@ public class FastCollinearPoints {
 	 * or if the argument to the constructor contains a repeated point.
 	 */
 	public FastCollinearPoints(Point[] inPoints) {
-		if (inPoints == null) {
-			throw new IllegalArgumentException();
-		}
-		points = new Points(inPoints);
-		segments = new Segments();
-		tryCalculateSegments();
+		this(pointsOf(inPoints), MIN_POINTS, null, null);
 	}
 
-	private void tryCalculateSegments() {
-		if (points.size() >= 4) {
-			calculateLineSegments();
-		}
+	/**
+	 * Finds all line segments containing minPoints or more points.
+	 * Anchors with fewer than minPoints - 1 points after them are not scanned, so a bigger minPoints is faster.
+	 *
+	 * @param inPoints
+	 * @param minPoints minimal number of points of a segment, at least 3
+	 * @throws IllegalArgumentException if the points are null, if any point in the array is null,
+	 * if the array contains a repeated point, or if minPoints is less than 3.
+	 */
+	public FastCollinearPoints(Point[] inPoints, int minPoints) {
+		this(pointsOf(inPoints), checkMinPoints(minPoints), null, null);
 	}
 
-	private void calculateLineSegments() {
-		for (int i = 0; i <= points.size() - 4; i++) {
-			calculateLineSegmentsForPoint(i);
-		}
+	/**
+	 * Finds all line segments containing 4 or more points given as parallel coordinate arrays.
+	 * No {@link Point} objects are created until {@link #segments()} is called.
+	 *
+	 * @param xs x-coordinates of the points
+	 * @param ys y-coordinates of the points
+	 * @throws IllegalArgumentException if any of the arrays is null, if the arrays differ in length,
+	 * or if the arrays contain a repeated point.
+	 */
+	public FastCollinearPoints(int[] xs, int[] ys) {
+		this(pointsOf(xs, ys), MIN_POINTS, null, null);
 	}
 
-	private void calculateLineSegmentsForPoint(int i) {
-		MyPoint thePoint = points.get(i);
-		Points pointsSubset = points.subsetFromIncluding(i+1);
-		pointsSubset.sort(thePoint.comparator());
-		calculateLineSegmentsFor(thePoint, pointsSubset);
+	/**
+	 * Finds all line segments containing minPoints or more points given as parallel coordinate arrays.
+	 *
+	 * @param xs x-coordinates of the points
+	 * @param ys y-coordinates of the points
+	 * @param minPoints minimal number of points of a segment, at least 3
+	 * @throws IllegalArgumentException if any of the arrays is null, if the arrays differ in length,
+	 * if the arrays contain a repeated point, or if minPoints is less than 3.
+	 */
+	public FastCollinearPoints(int[] xs, int[] ys, int minPoints) {
+		this(pointsOf(xs, ys), checkMinPoints(minPoints), null, null);
 	}
 
-	private void calculateLineSegmentsFor(MyPoint thePoint, Points pointsToCheck) {
-		int start = 0;
-		int end = start + 2;
-		while (start < pointsToCheck.oneBeforeLastIndex()) {
-			if (pointsToCheck.isSlopeToPointNotEqual(thePoint, start, end)) {
-				start++; end++;
-				continue;
-			}
-			int lastGood = end;
-			while (end <= pointsToCheck.lastIndex() && pointsToCheck.isSlopeToPointEqual(thePoint, start, end)) {
-				lastGood = end++;
-			}
-			segments.addSegment(thePoint, pointsToCheck.getAllBetween(start, lastGood));
-			start = lastGood + 1;
-			end = start + 2;
+	/**
+	 * Finds all line segments containing minPoints or more points, measuring the phases of the search into the stats.
+	 * Bytes allocated are those of the calling thread.
+	 *
+	 * @param inPoints
+	 * @param minPoints minimal number of points of a segment, at least 3
+	 * @param stats metrics to add to
+	 * @throws IllegalArgumentException if the points or the stats are null, if any point in the array is null,
+	 * if the array contains a repeated point, or if minPoints is less than 3.
+	 * @see CollinearStats
+	 */
+	public FastCollinearPoints(Point[] inPoints, int minPoints, CollinearStats stats) {
+		this(measuredPointsOf(inPoints, stats), checkMinPoints(minPoints), null, stats);
+	}
+
+	private FastCollinearPoints(Points points, int minPoints, ForkJoinPool pool, CollinearStats stats) {
+		this.points = points;
+		this.minPoints = minPoints;
+		segments = stats == null ? new Segments(points) : new Segments.Measured(points, stats);
+		tryCalculateSegments(pool, stats);
+		if (stats != null) {
+			stats.allocatedBytes += CollinearStats.threadAllocatedBytes();
 		}
 	}
 
 	/**
-	 * Number of line segments
-	 * @return 	the number of line segments
+	 * Wraps segments already found with the default minimal number of points.
 	 */
-	public int numberOfSegments() {
-		return segments.size();
+	FastCollinearPoints(Points points, Segments segments) {
+		this.points = points;
+		minPoints = MIN_POINTS;
+		this.segments = segments;
 	}
 
 	/**
-	 * should include each maximal line segment containing 4 (or more) points exactly once.
-	 * For example, if 5 points appear on a line segment in the order p→q→r→s→t, then do not include the subsegments p→s or q→t.
-	 * @return the line segments
+	 * Finds all line segments containing 4 or more points of a text file in the algs4 format.
+	 *
+	 * @param file
+	 * @return the calculated collinear points
+	 * @throws IOException if the file cannot be read or is malformed
+	 * @throws IllegalArgumentException if the file contains a repeated point.
+	 * @see PointsFile#readText(Path)
 	 */
-	public LineSegment[] segments() {
-		return segments.getSegments();
+	public static FastCollinearPoints fromFile(Path file) throws IOException {
+		PointsFile points = PointsFile.readText(file);
+		return new FastCollinearPoints(points.xs(), points.ys());
 	}
 
-
-	/****************************************************************************
-	 * Points collection
-	 ****************************************************************************/
-	private static class Points {
-		private MyPoint[] myPointsArray;
-
-		private Points(Point[] inPoints) {
-			Point[] pointsArray = new PointsValidator(inPoints).validate();
-			myPointsArray = new MyPoint[pointsArray.length];
-			for (int i = 0; i < pointsArray.length; i++) {
-				myPointsArray[i] = new MyPoint(pointsArray[i]);
-			}
-		}
-
-		private Points() {
-		}
-
-		private int size() {
-			return myPointsArray.length;
+	/**
+	 * Finds all line segments containing 4 or more points, processing anchor points in parallel in the given pool.
+	 * The result is the same, in the same order, as the one of {@link #FastCollinearPoints(Point[])}.
+	 *
+	 * @param inPoints
+	 * @param pool pool that runs the anchor tasks
+	 * @return the calculated collinear points
+	 * @throws IllegalArgumentException if any of the arguments is null, if any point in the array is null,
+	 * or if the array contains a repeated point.
+	 */
+	public static FastCollinearPoints parallel(Point[] inPoints, ForkJoinPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException();
 		}
+		return new FastCollinearPoints(pointsOf(inPoints), MIN_POINTS, pool, null);
+	}
 
-		private MyPoint get(int i) {
-			return myPointsArray[i];
+	/**
+	 * Starts finding all line segments containing 4 or more points in the background.
+	 * The points are checked before the method returns, the search runs as a single task of the executor and can be
+	 * followed, cancelled or stopped by the deadline through the returned handle.
+	 *
+	 * @param inPoints
+	 * @param deadline time after which the search stops with the segments found so far
+	 * @param executor executor that runs the search
+	 * @return handle of the running search
+	 * @throws IllegalArgumentException if any of the arguments is null, if the deadline is negative,
+	 * if any point in the array is null, or if the array contains a repeated point.
+	 */
+	public static CollinearDetection async(Point[] inPoints, Duration deadline, Executor executor) {
+		if (deadline == null || deadline.isNegative() || executor == null) {
+			throw new IllegalArgumentException();
 		}
+		CollinearDetection detection = new CollinearDetection(pointsOf(inPoints), deadline);
+		detection.start(executor);
+		return detection;
+	}
 
-		private Points subsetFromIncluding(int from) {
-			Points clone = new Points();
-			int newLen = size() - from;
-			clone.myPointsArray = new MyPoint[newLen];
-			System.arraycopy(myPointsArray, from, clone.myPointsArray, 0, newLen);
-			return clone;
+	/**
+	 * Finds all line segments containing 4 or more points of many independent point sets.
+	 * Sets are split into chunks processed in parallel in the given pool, and each chunk reuses one set of scratch
+	 * buffers for all its sets, so small sets cost little more than their own points and segments.
+	 *
+	 * @param pointSets
+	 * @param pool pool that runs the chunks
+	 * @return the calculated collinear points of every set, in the order of the sets
+	 * @throws IllegalArgumentException if any of the arguments is null, if any set or any point in a set is null,
+	 * or if any set contains a repeated point.
+	 */
+	public static List<FastCollinearPoints> batch(List<Point[]> pointSets, ForkJoinPool pool) {
+		if (pointSets == null || pool == null) {
+			throw new IllegalArgumentException();
 		}
-
-		private void sort(Comparator<MyPoint> comparator) {
-			MergeSort.sort(myPointsArray, comparator);
+		Point[][] sets = pointSets.toArray(new Point[0][]);
+		FastCollinearPoints[] results = new FastCollinearPoints[sets.length];
+		if (sets.length > 0) {
+			int chunkSize = Math.max(1, sets.length / (pool.getParallelism() * BatchTask.CHUNKS_PER_THREAD));
+			pool.invoke(new BatchTask(sets, results, chunkSize, 0, sets.length));
 		}
+		return Collections.unmodifiableList(Arrays.asList(results));
+	}
 
-		private boolean isSlopeToPointNotEqual(MyPoint thePoint, int start, int end) {
-			return !isSlopeToPointEqual(thePoint, start, end);
-		}
+	/**
+	 * Streams all line segments containing 4 or more points to the action, as soon as each anchor point is scanned.
+	 * Segments are not collected: every anchor is compared with all the other points and a segment is passed on
+	 * only from its smallest point, so memory stays proportional to n whatever the number of segments,
+	 * at the cost of up to twice as much sorting.
+	 *
+	 * @param inPoints
+	 * @param action receives each maximal line segment exactly once
+	 * @throws IllegalArgumentException if any of the arguments is null, if any point in the array is null,
+	 * or if the array contains a repeated point.
+	 */
+	public static void forEachSegment(Point[] inPoints, Consumer<? super LineSegment> action) {
+		forEachSegment(pointsOf(inPoints), action);
+	}
 
-		private boolean isSlopeToPointEqual(MyPoint thePoint, int start, int end) {
-			return findPointSlopeTo(thePoint, start) == findPointSlopeTo(thePoint, end);
-		}
+	/**
+	 * Streams all line segments of points given as parallel coordinate arrays, see {@link #forEachSegment(Point[], Consumer)}.
+	 *
+	 * @param xs x-coordinates of the points
+	 * @param ys y-coordinates of the points
+	 * @param action receives each maximal line segment exactly once
+	 * @throws IllegalArgumentException if any of the arguments is null, if the arrays differ in length,
+	 * or if the arrays contain a repeated point.
+	 */
+	public static void forEachSegment(int[] xs, int[] ys, Consumer<? super LineSegment> action) {
+		forEachSegment(pointsOf(xs, ys), action);
+	}
 
-		private double findPointSlopeTo(MyPoint thePoint, int point) {
-			return thePoint.slopeTo(get(point));
+	private static void forEachSegment(Points points, Consumer<? super LineSegment> action) {
+		if (action == null) {
+			throw new IllegalArgumentException();
 		}
+		AnchorScan scan = new AnchorScan(points, new SegmentStream(points, action), true, MIN_POINTS);
+		scan.scan(0, scan.anchors());
+	}
 
-		private int lastIndex() {
-			return size() - 1;
+	private static Points pointsOf(Point[] inPoints) {
+		if (inPoints == null) {
+			throw new IllegalArgumentException();
 		}
+		return Points.of(inPoints);
+	}
 
-		private int oneBeforeLastIndex() {
-			return size() - 2;
+	/**
+	 * Validation is the first phase, so allocated bytes are counted from here.
+	 */
+	private static Points measuredPointsOf(Point[] inPoints, CollinearStats stats) {
+		if (stats == null) {
+			throw new IllegalArgumentException();
 		}
+		stats.allocatedBytes -= CollinearStats.threadAllocatedBytes();
+		long begin = System.nanoTime();
+		Points points = pointsOf(inPoints);
+		stats.validateNanos += System.nanoTime() - begin;
+		return points;
+	}
 
-		public MyPoint[] getAllBetween(int start, int lastGood) {
-			MyPoint[] result = new MyPoint[lastGood - start + 1];
-			for (int i = start, j = 0; i <= lastGood; i++) {
-				result[j++] = myPointsArray[i];
-			}
-			return result;
+	private static int checkMinPoints(int minPoints) {
+		if (minPoints < 3) {
+			throw new IllegalArgumentException();
 		}
+		return minPoints;
 	}
 
-	private static class PointsValidator {
-		private final Point[] pointsArray;
-
-		private PointsValidator(Point[] inPoints) {
-			pointsArray = new Point[inPoints.length];
-			System.arraycopy(inPoints, 0, pointsArray, 0, inPoints.length);
+	private static Points pointsOf(int[] xs, int[] ys) {
+		if (xs == null || ys == null || xs.length != ys.length) {
+			throw new IllegalArgumentException();
 		}
+		return Points.of(xs, ys);
+	}
 
-		private Point[] validate() {
-			sort();
-			for (int i = 0; i < pointsArray.length; i++) {
-				if (pointsArray[i] == null) {
-					throw new IllegalArgumentException();
-				}
-				if (i == 0) {
-					continue;
-				}
-				checkAllPointsAreDistinct(i);
-			}
-			return pointsArray;
+	private void tryCalculateSegments(ForkJoinPool pool, CollinearStats stats) {
+		if (points.size() < minPoints) {
+			return;
 		}
-
-		private void sort() {
-			try {
-				Arrays.sort(pointsArray);
-			}
-			catch (NullPointerException e) {
-				throw new IllegalArgumentException();
-			}
+		if (pool == null) {
+			calculateLineSegments(stats);
+		} else {
+			calculateLineSegments(pool);
 		}
+	}
 
-		private void checkAllPointsAreDistinct(int i) {
-			Point current = pointsArray[i];
-			Point previous = pointsArray[i - 1];
-			if (previous.compareTo(current) == 0) {
-				throw new IllegalArgumentException();
-			}
-		}
+	private void calculateLineSegments(CollinearStats stats) {
+		AnchorScan scan = new AnchorScan(points, segments, false, minPoints, stats);
+		scan.scan(0, scan.anchors());
 	}
 
 	/**
-	 * Point with info about segments that contain this point
+	 * Anchors are split into chunks scanned in parallel into their own buffers.
+	 * Buffers are replayed in anchor order, so duplicates are resolved exactly as in the sequential scan.
 	 */
-	private static class MyPoint {
-		private final Point point;
-		private Point[] lastPointsInMySegments = new Point[1];
-		private int lastPointsSize = 0;
-
-		private MyPoint(Point point) {
-			this.point = point;
-		}
-
-		/**
-		 * Adds info about segment that contains this point.
-		 * @param lastPoint
-		 * @return true if segment already existed in collection and was not added, false if segment added
-		 */
-		private boolean addNewSegment(Point lastPoint) {
-			for (int i = 0; i < lastPointsSize; i++) {
-				if (lastPointsInMySegments[i].compareTo(lastPoint) == 0) {
-					return true;
-				}
-			}
-			if (lastPointsSize == lastPointsInMySegments.length) {
-				Point[] dest = new Point[lastPointsInMySegments.length * 2];
-				System.arraycopy(lastPointsInMySegments, 0, dest, 0, lastPointsSize);
-				lastPointsInMySegments = dest;
-			}
-			lastPointsInMySegments[lastPointsSize++] = lastPoint;
-			return false;
-		}
-
-		private Comparator<MyPoint> comparator() {
-			return (a,b) -> point.slopeOrder().compare(a.point, b.point);
-		}
-
-		private double slopeTo(MyPoint thatPoint) {
-			return this.point.slopeTo(thatPoint.point);
+	private void calculateLineSegments(ForkJoinPool pool) {
+		int anchors = points.size() - minPoints + 1;
+		int chunkSize = Math.max(1, anchors / (pool.getParallelism() * AnchorTask.CHUNKS_PER_THREAD));
+		Runs[] chunks = new Runs[(anchors + chunkSize - 1) / chunkSize];
+		pool.invoke(new AnchorTask(points, minPoints, chunks, chunkSize, anchors, 0, chunks.length));
+		for (Runs runs : chunks) {
+			runs.replayTo(segments);
 		}
+	}
 
-		public String toString() {
-			return point.toString();
-		}
+	/**
+	 * Number of line segments
+	 * @return 	the number of line segments
+	 */
+	public int numberOfSegments() {
+		return segments.size();
 	}
 
-	/****************************************************************************
-	 * Segments collections
-	 *****************************************************************************/
-	private static class Segments {
-		private LineSegment[] segmentsArray;
-		private int segmentsSize = 0;
+	/**
+	 * should include each maximal line segment containing 4 (or more) points exactly once.
+	 * For example, if 5 points appear on a line segment in the order p→q→r→s→t, then do not include the subsegments p→s or q→t.
+	 * @return the line segments
+	 */
+	public LineSegment[] segments() {
+		return segments.getSegments();
+	}
 
-		private Segments() {
-			segmentsArray = new LineSegment[10];
-		}
 
-		private LineSegment[] getSegments() {
-			if (segmentsSize == segmentsArray.length) {
-				return segmentsArray;
+	/**
+	 * Splits chunks of anchors between fork/join workers.
+	 */
+	private static class AnchorTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int CHUNKS_PER_THREAD = 8;
+		private final Points points;
+		private final int minPoints;
+		private final Runs[] chunks;
+		private final int chunkSize;
+		private final int anchors;
+		private final int fromChunk;
+		private final int toChunk;
+
+		private AnchorTask(Points points, int minPoints, Runs[] chunks, int chunkSize, int anchors, int fromChunk, int toChunk) {
+			this.points = points;
+			this.minPoints = minPoints;
+			this.chunks = chunks;
+			this.chunkSize = chunkSize;
+			this.anchors = anchors;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (toChunk - fromChunk > 1) {
+				int mid = fromChunk + (toChunk - fromChunk) / 2;
+				invokeAll(new AnchorTask(points, minPoints, chunks, chunkSize, anchors, fromChunk, mid),
+						  new AnchorTask(points, minPoints, chunks, chunkSize, anchors, mid, toChunk));
+				return;
 			}
-			LineSegment[] segmentsCopy = new LineSegment[segmentsSize];
-			System.arraycopy(segmentsArray, 0, segmentsCopy,0, segmentsSize);
-			return segmentsCopy;
-		}
-
-		private int size() {
-			return segmentsSize;
+			Runs runs = new Runs();
+			int from = fromChunk * chunkSize;
+			new AnchorScan(points, runs, false, minPoints).scan(from, Math.min(from + chunkSize, anchors));
+			chunks[fromChunk] = runs;
 		}
+	}
 
-		private void addSegment(MyPoint firstPoint, MyPoint[] segmentPoints) {
-			MyPoint lastPoint = segmentPoints[segmentPoints.length-1];
-			if(firstPoint.addNewSegment(lastPoint.point)) {
+	/**
+	 * Splits point sets between fork/join workers, sets of one chunk share one anchor scan.
+	 */
+	private static class BatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int CHUNKS_PER_THREAD = 8;
+		private final Point[][] sets;
+		private final FastCollinearPoints[] results;
+		private final int chunkSize;
+		private final int from;
+		private final int to;
+
+		private BatchTask(Point[][] sets, FastCollinearPoints[] results, int chunkSize, int from, int to) {
+			this.sets = sets;
+			this.results = results;
+			this.chunkSize = chunkSize;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > chunkSize) {
+				int mid = from + (to - from) / 2;
+				invokeAll(new BatchTask(sets, results, chunkSize, from, mid),
+						  new BatchTask(sets, results, chunkSize, mid, to));
 				return;
 			}
-			for (int i = 0; i < segmentPoints.length-1; i++) {
-				if(segmentPoints[i].addNewSegment(lastPoint.point)) {
-					return;
+			AnchorScan scan = null;
+			for (int i = from; i < to; i++) {
+				Points points = pointsOf(sets[i]);
+				Segments segments = new Segments(points);
+				if (points.size() >= MIN_POINTS) {
+					if (scan == null) {
+						scan = new AnchorScan(points, segments, false, MIN_POINTS);
+					} else {
+						scan.reset(points, segments);
+					}
+					scan.scan(0, scan.anchors());
 				}
+				results[i] = new FastCollinearPoints(points, segments);
 			}
-			LineSegment lineSegment = new LineSegment(firstPoint.point, lastPoint.point);
-			addSegment(lineSegment);
-		}
-
-		private void addSegment(LineSegment lineSegment) {
-			if (segmentsSize == segmentsArray.length) {
-				LineSegment[] dest = new LineSegment[segmentsArray.length * 2];
-				System.arraycopy(segmentsArray, 0, dest, 0, segmentsSize);
-				segmentsArray = dest;
-			}
-			segmentsArray[segmentsSize++] = lineSegment;
 		}
 	}
 
-	/****************************************************************************
-	 * Merge Sort
-	 *****************************************************************************/
-	private static class MergeSort {
-		private static void sort(MyPoint[] points, Comparator<MyPoint> comparator) {
-			if (points == null || comparator == null || points.length < 1) {
-				throw new IllegalArgumentException();
-			}
-			MyPoint[] aux = new MyPoint[points.length];
-			sort(points, aux, 0, points.length-1, comparator);
+	/**
+	 * Passes on runs which start at the smallest point of their line, runs of other anchors are parts of them.
+	 */
+	private static class SegmentStream implements SegmentSink {
+		private final Points points;
+		private final Consumer<? super LineSegment> action;
+
+		private SegmentStream(Points points, Consumer<? super LineSegment> action) {
+			this.points = points;
+			this.action = action;
 		}
 
-		private static void sort(MyPoint[] points, MyPoint[] aux, int lo, int hi, Comparator<MyPoint> comparator) {
-			if (lo >= hi) {
-				return;
+		@Override
+		public void addSegment(int firstPoint, int[] candidates, int start, int end) {
+			if (candidates[start] > firstPoint) {
+				action.accept(new LineSegment(points.toPoint(firstPoint), points.toPoint(candidates[end])));
 			}
-			int mid = lo + (hi - lo) / 2;
-			sort(points, aux, lo, mid, comparator);
-			sort(points, aux, mid+1, hi, comparator);
-			System.arraycopy(points, lo, aux, lo, hi - lo + 1);
-			merge(points, aux, lo, mid, hi, comparator);
 		}
+	}
 
-		private static void merge(MyPoint[] points, MyPoint[] aux, int lo, int mid, int hi, Comparator<MyPoint> comparator) {
-			int k = lo;
-			int i = lo;
-			int j = mid+1;
-			while (i <= mid && j <= hi) {
-				if (comparator.compare(aux[i], aux[j]) <= 0) {
-					points[k++] = aux[i++];
-				} else {
-					points[k++] = aux[j++];
-				}
-			}
-			while (j <= hi) {
-				points[k++] = aux[j++];
+	/**
+	 * Buffer of runs found by one worker, stored as anchor, run length and run points.
+	 */
+	private static class Runs implements SegmentSink {
+		private int[] data = new int[16];
+		private int dataSize = 0;
+
+		@Override
+		public void addSegment(int firstPoint, int[] candidates, int start, int end) {
+			int length = end - start + 1;
+			if (dataSize + length + 2 > data.length) {
+				data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + length + 2));
 			}
-			while (i <= mid) {
-				points[k++] = aux[i++];
+			data[dataSize++] = firstPoint;
+			data[dataSize++] = length;
+			System.arraycopy(candidates, start, data, dataSize, length);
+			dataSize += length;
+		}
+
+		private void replayTo(SegmentSink sink) {
+			int i = 0;
+			while (i < dataSize) {
+				int firstPoint = data[i++];
+				int length = data[i++];
+				sink.addSegment(firstPoint, data, i, i + length - 1);
+				i += length;
 			}
 		}
 	}
-}
\ No newline at end of file
+}
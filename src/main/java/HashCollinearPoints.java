@@ -0,0 +1,182 @@
+import java.util.Arrays;
+
+/**
+ * Finds the same segments as {@link FastCollinearPoints}, but instead of sorting the points after every anchor p
+ * by the slope they make with p, it groups them by slope in a hash table.
+ *
+ * Slopes are integer directions (dx, dy) divided by their greatest common divisor, so points with equal slopes
+ * get equal keys and grouping is exact. Every point is put in its group in expected constant time, hence the
+ * order of growth of the expected running time is n2 (times the cost of gcd), instead of n2 log n.
+ * Space is proportional to n plus the number of line segments returned.
+ */
+public class HashCollinearPoints {
+	private final Points points;
+	private final Segments segments;
+
+	/**
+	 * Finds all line segments containing 4 or more points
+	 *
+	 * @param inPoints
+	 * @throws IllegalArgumentException if the argument to the constructor is null, if any point in the array is null,
+	 * or if the argument to the constructor contains a repeated point.
+	 */
+	public HashCollinearPoints(Point[] inPoints) {
+		if (inPoints == null) {
+			throw new IllegalArgumentException();
+		}
+		points = Points.of(inPoints);
+		segments = new Segments(points);
+		calculateLineSegments();
+	}
+
+	/**
+	 * Finds all line segments containing 4 or more points given as parallel coordinate arrays.
+	 *
+	 * @param xs x-coordinates of the points
+	 * @param ys y-coordinates of the points
+	 * @throws IllegalArgumentException if any of the arrays is null, if the arrays differ in length,
+	 * or if the arrays contain a repeated point.
+	 */
+	public HashCollinearPoints(int[] xs, int[] ys) {
+		if (xs == null || ys == null || xs.length != ys.length) {
+			throw new IllegalArgumentException();
+		}
+		points = Points.of(xs, ys);
+		segments = new Segments(points);
+		calculateLineSegments();
+	}
+
+	private void calculateLineSegments() {
+		if (points.size() < 4) {
+			return;
+		}
+		SlopeGroups groups = new SlopeGroups(points);
+		for (int i = 0; i <= points.size() - 4; i++) {
+			groups.group(i);
+			groups.addSegmentsTo(segments);
+		}
+	}
+
+	/**
+	 * Number of line segments
+	 * @return 	the number of line segments
+	 */
+	public int numberOfSegments() {
+		return segments.size();
+	}
+
+	/**
+	 * should include each maximal line segment containing 4 (or more) points exactly once.
+	 * @return the line segments
+	 */
+	public LineSegment[] segments() {
+		return segments.getSegments();
+	}
+
+	/****************************************************************************
+	 * Groups of points after the anchor by slope.
+	 * Open addressing hash table from normalized direction to a linked list of points, kept in primitive arrays.
+	 * Slots are stamped with the anchor they were filled for, so the table is reused without clearing.
+	 ****************************************************************************/
+	private static class SlopeGroups {
+		private static final int EMPTY = -1;
+		private final Points points;
+		private final int mask;
+		private final long[] slotDxs;
+		private final long[] slotDys;
+		private final int[] slotAnchors;
+		private final int[] slotFirstPoints;
+		private final int[] slotLastPoints;
+		private final int[] slotSizes;
+		private final int[] usedSlots;
+		private final int[] nextPoints;
+		private final int[] run;
+		private int usedSize;
+		private int anchor = EMPTY;
+
+		private SlopeGroups(Points points) {
+			this.points = points;
+			int capacity = Integer.highestOneBit(Math.max(2, points.size()) * 2 - 1) << 1;
+			mask = capacity - 1;
+			slotDxs = new long[capacity];
+			slotDys = new long[capacity];
+			slotAnchors = new int[capacity];
+			Arrays.fill(slotAnchors, EMPTY);
+			slotFirstPoints = new int[capacity];
+			slotLastPoints = new int[capacity];
+			slotSizes = new int[capacity];
+			usedSlots = new int[points.size()];
+			nextPoints = new int[points.size()];
+			run = new int[points.size()];
+		}
+
+		/**
+		 * Groups the points after the anchor by the slope they make with it, keeping every group in natural order.
+		 */
+		private void group(int thePoint) {
+			anchor = thePoint;
+			usedSize = 0;
+			for (int i = thePoint + 1; i < points.size(); i++) {
+				add(i);
+			}
+		}
+
+		private void add(int point) {
+			long dx = (long) points.x(point) - points.x(anchor);
+			long dy = (long) points.y(point) - points.y(anchor);
+			long gcd = gcd(Math.abs(dx), dy);
+			dx /= gcd;
+			dy /= gcd;
+			int slot = slotOf(dx, dy);
+			nextPoints[point] = EMPTY;
+			if (slotAnchors[slot] != anchor) {
+				slotAnchors[slot] = anchor;
+				slotDxs[slot] = dx;
+				slotDys[slot] = dy;
+				slotFirstPoints[slot] = point;
+				slotSizes[slot] = 0;
+				usedSlots[usedSize++] = slot;
+			} else {
+				nextPoints[slotLastPoints[slot]] = point;
+			}
+			slotLastPoints[slot] = point;
+			slotSizes[slot]++;
+		}
+
+		/**
+		 * Points after the anchor are bigger in natural order, so dy >= 0 and the direction is unique.
+		 * @return the slot of the direction, either already filled for the anchor or free
+		 */
+		private int slotOf(long dx, long dy) {
+			long h = (dx * 0x9E3779B97F4A7C15L + dy) * 0xC2B2AE3D27D4EB4FL;
+			int slot = (int) (h ^ (h >>> 32)) & mask;
+			while (slotAnchors[slot] == anchor && (slotDxs[slot] != dx || slotDys[slot] != dy)) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		private void addSegmentsTo(SegmentSink sink) {
+			for (int i = 0; i < usedSize; i++) {
+				int slot = usedSlots[i];
+				if (slotSizes[slot] < 3) {
+					continue;
+				}
+				int size = 0;
+				for (int point = slotFirstPoints[slot]; point != EMPTY; point = nextPoints[point]) {
+					run[size++] = point;
+				}
+				sink.addSegment(anchor, run, 0, size - 1);
+			}
+		}
+
+		private static long gcd(long a, long b) {
+			while (b != 0) {
+				long t = a % b;
+				a = b;
+				b = t;
+			}
+			return a;
+		}
+	}
+}
@@ -0,0 +1,6 @@
+/**
+ * Comparator of point indices
+ */
+interface IntComparator {
+	int compare(int a, int b);
+}
@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+/**
+ * Open addressing hash set of non-negative longs
+ */
+final class LongHashSet {
+	private static final long EMPTY = -1L;
+	private long[] keys = newKeys(16);
+	private int size = 0;
+
+	/**
+	 * @return true if the key was added, false if it was already in the set
+	 */
+	boolean add(long key) {
+		if (2 * (size + 1) > keys.length) {
+			grow();
+		}
+		if (!insert(keys, key)) {
+			return false;
+		}
+		size++;
+		return true;
+	}
+
+	private void grow() {
+		long[] newKeys = newKeys(keys.length * 2);
+		for (long key : keys) {
+			if (key != EMPTY) {
+				insert(newKeys, key);
+			}
+		}
+		keys = newKeys;
+	}
+
+	private static boolean insert(long[] table, long key) {
+		int mask = table.length - 1;
+		int i = hash(key) & mask;
+		while (table[i] != EMPTY) {
+			if (table[i] == key) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		table[i] = key;
+		return true;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static long[] newKeys(int length) {
+		long[] table = new long[length];
+		Arrays.fill(table, EMPTY);
+		return table;
+	}
+}
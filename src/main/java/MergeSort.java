@@ -0,0 +1,59 @@
+/**
+ * Stable merge sorts of point indices
+ */
+final class MergeSort {
+	private static final int INSERTION_SORT_CUTOFF = 8;
+
+	private MergeSort() {
+	}
+
+	/**
+	 * Sorts indices between lo and hi (both inclusive) with the comparator, using the given aux buffer.
+	 * The sort is stable.
+	 */
+	static void sort(int[] points, int[] aux, int lo, int hi, IntComparator comparator) {
+		if (hi - lo < INSERTION_SORT_CUTOFF) {
+			insertionSort(points, lo, hi, comparator);
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		sort(points, aux, lo, mid, comparator);
+		sort(points, aux, mid+1, hi, comparator);
+		if (comparator.compare(points[mid], points[mid+1]) <= 0) {
+			return;
+		}
+		System.arraycopy(points, lo, aux, lo, hi - lo + 1);
+		merge(points, aux, lo, mid, hi, comparator);
+	}
+
+	private static void insertionSort(int[] points, int lo, int hi, IntComparator comparator) {
+		for (int i = lo + 1; i <= hi; i++) {
+			int point = points[i];
+			int j = i - 1;
+			while (j >= lo && comparator.compare(points[j], point) > 0) {
+				points[j + 1] = points[j];
+				j--;
+			}
+			points[j + 1] = point;
+		}
+	}
+
+	private static void merge(int[] points, int[] aux, int lo, int mid, int hi, IntComparator comparator) {
+		int k = lo;
+		int i = lo;
+		int j = mid+1;
+		while (i <= mid && j <= hi) {
+			if (comparator.compare(aux[i], aux[j]) <= 0) {
+				points[k++] = aux[i++];
+			} else {
+				points[k++] = aux[j++];
+			}
+		}
+		while (j <= hi) {
+			points[k++] = aux[j++];
+		}
+		while (i <= mid) {
+			points[k++] = aux[i++];
+		}
+	}
+}
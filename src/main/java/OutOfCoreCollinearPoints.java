@@ -0,0 +1,713 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Finds the same segments as {@link FastCollinearPoints} for point sets too big for the heap.
+ * Points are read from a binary {@link PointsFile} and segments are written to a text file, one per line.
+ *
+ * Points are first sorted in natural order on disk: runs of memoryBudget points are sorted and spilled to files,
+ * then merged a few at a time, in as many passes as needed, into one file of packed points, which is memory mapped.
+ * One pass over the points computes the exact
+ * direction every point makes with an anchor, as in {@link HashCollinearPoints}. Points are grouped by direction around
+ * the anchor, keeping only the size and the ends of every group, in a table of fixed size. While the groups of
+ * an anchor fit in a part of the budget, anchors are taken in batches, one table each, and a pass serves the batch.
+ * When they may not fit even in a table of the whole budget, anchors are taken one at a time, and the pairs of
+ * a direction and a point are spilled to partition files by the hash of the direction instead; every partition is
+ * grouped from its file, and a partition which does not fit is split by further bits of the hash.
+ * A group of 3 or more points bigger than the anchor is a segment, written only by the smallest point of its line.
+ *
+ * Heap use is proportional to memoryBudget, below 64 bytes per unit, whatever the number of points.
+ * Work files next to the segments file take 16 bytes per point for the sorted runs and points and, when spilling,
+ * 28 bytes per point for the pairs of the current anchor, plus as much again for every split of a partition.
+ * Each anchor computes one direction per point and, when spilling, writes and reads back its pairs.
+ * Detection thus takes time and disk traffic proportional to n2 overall, and the sorted points are read once
+ * per batch of anchors.
+ */
+public final class OutOfCoreCollinearPoints {
+	static final int MIN_BUDGET = 64;
+	private static final int TABLES = 64;
+	private static final int MIN_CAPACITY = 8;
+	private static final int MAX_FAN_OUT = 64;
+	private static final int MAX_FAN_IN = 64;
+	private static final int MERGE_BUFFER_BYTES = 1 << 12;
+	private static final int MAX_BUFFER_BYTES = 1 << 30;
+	private static final int PAIR_BYTES = Integer.BYTES + 3 * Long.BYTES;
+
+	private OutOfCoreCollinearPoints() {
+	}
+
+	/**
+	 * Finds all line segments containing 4 or more points of a binary points file and writes them to a text file,
+	 * one segment per line in the format of {@link LineSegment#toString()}.
+	 * Work files are created next to the segments file and deleted afterwards.
+	 *
+	 * @param pointsFile binary points file
+	 * @param segmentsFile text file for the segments, replaced if it exists
+	 * @param memoryBudget number of points and slope groups held on heap at once
+	 * @return the number of segments written
+	 * @throws IOException if any of the files cannot be accessed or the points file is not valid
+	 * @throws IllegalArgumentException if any of the files is null, if memoryBudget is below 64,
+	 * or if the points file contains a repeated point.
+	 */
+	public static long detect(Path pointsFile, Path segmentsFile, int memoryBudget) throws IOException {
+		if (pointsFile == null || segmentsFile == null || memoryBudget < MIN_BUDGET) {
+			throw new IllegalArgumentException();
+		}
+		Path workDir = Files.createTempDirectory(segmentsFile.toAbsolutePath().getParent(), "collinear");
+		try {
+			Path sorted = sort(pointsFile, workDir, memoryBudget);
+			try (SortedPoints points = SortedPoints.map(sorted);
+				 BufferedWriter out = Files.newBufferedWriter(segmentsFile);
+				 Detection detection = new Detection(points, workDir, out, memoryBudget)) {
+				return detection.run();
+			}
+		} finally {
+			deleteAll(workDir);
+		}
+	}
+
+	/**
+	 * Finds segments of a binary points file.
+	 * Usage: java OutOfCoreCollinearPoints points.bin segments.txt [memoryBudget]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || args.length > 3) {
+			System.err.println("Usage: java OutOfCoreCollinearPoints points.bin segments.txt [memoryBudget]");
+			System.exit(1);
+		}
+		int memoryBudget = args.length == 3 ? Integer.parseInt(args[2]) : 1 << 22;
+		long segments = detect(Path.of(args[0]), Path.of(args[1]), memoryBudget);
+		System.out.println(segments + " segments");
+	}
+
+	/**
+	 * Sorts the points in natural order into a file of packed points.
+	 */
+	private static Path sort(Path pointsFile, Path workDir, int memoryBudget) throws IOException {
+		List<Path> runs = new ArrayList<>();
+		long[] run = new long[memoryBudget];
+		int runSize = 0;
+		try (FileChannel channel = FileChannel.open(pointsFile, StandardOpenOption.READ)) {
+			long remaining = PointsFile.readHeader(pointsFile, channel);
+			long position = PointsFile.HEADER_BYTES;
+			while (remaining > 0) {
+				long bytes = Math.min(PointsFile.MAX_MAPPED_BYTES, remaining * PointsFile.POINT_BYTES);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes);
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				while (buffer.hasRemaining()) {
+					int x = buffer.getInt();
+					run[runSize++] = Points.pack(x, buffer.getInt());
+					if (runSize == run.length) {
+						runs.add(spill(run, runSize, workDir));
+						runSize = 0;
+					}
+				}
+				position += bytes;
+				remaining -= bytes / PointsFile.POINT_BYTES;
+			}
+		}
+		if (runSize > 0 || runs.isEmpty()) {
+			runs.add(spill(run, runSize, workDir));
+		}
+		int fanIn = mergeFanIn(memoryBudget);
+		while (runs.size() > fanIn) {
+			List<Path> merged = new ArrayList<>();
+			for (int from = 0; from < runs.size(); from += fanIn) {
+				List<Path> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+				Path file = Files.createTempFile(workDir, "run", null);
+				merge(group, file, memoryBudget);
+				for (Path input : group) {
+					Files.delete(input);
+				}
+				merged.add(file);
+			}
+			runs = merged;
+		}
+		Path sorted = workDir.resolve("sorted");
+		merge(runs, sorted, memoryBudget);
+		return sorted;
+	}
+
+	/**
+	 * Runs are merged with buffers of MERGE_BUFFER_BYTES sharing the budget, and no more than MAX_FAN_IN files
+	 * are open at once; more runs are merged in several passes.
+	 *
+	 * @return the number of runs merged at once
+	 */
+	static int mergeFanIn(int memoryBudget) {
+		return (int) Math.max(2, Math.min(MAX_FAN_IN, (long) memoryBudget * Long.BYTES / MERGE_BUFFER_BYTES));
+	}
+
+	private static Path spill(long[] run, int runSize, Path workDir) throws IOException {
+		Arrays.sort(run, 0, runSize);
+		Path file = Files.createTempFile(workDir, "run", null);
+		try (DataOutputStream out = output(file)) {
+			for (int i = 0; i < runSize; i++) {
+				out.writeLong(run[i]);
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Merges sorted runs, sharing memoryBudget between the buffers of the runs.
+	 * @throws IllegalArgumentException if a point is repeated
+	 */
+	private static void merge(List<Path> runs, Path sorted, int memoryBudget) throws IOException {
+		int bufferBytes = (int) Math.min(MAX_BUFFER_BYTES, (long) memoryBudget * Long.BYTES / runs.size());
+		PriorityQueue<RunReader> queue = new PriorityQueue<>(Comparator.comparingLong(reader -> reader.head));
+		List<RunReader> readers = new ArrayList<>();
+		try (DataOutputStream out = output(sorted)) {
+			for (Path run : runs) {
+				RunReader reader = new RunReader(run, bufferBytes);
+				readers.add(reader);
+				if (reader.advance()) {
+					queue.add(reader);
+				}
+			}
+			boolean first = true;
+			long previous = 0;
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				if (!first && reader.head == previous) {
+					throw new IllegalArgumentException();
+				}
+				out.writeLong(reader.head);
+				previous = reader.head;
+				first = false;
+				if (reader.advance()) {
+					queue.add(reader);
+				}
+			}
+		} finally {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+		}
+	}
+
+	private static DataOutputStream output(Path file) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+	}
+
+	private static void deleteAll(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.deleteIfExists(file);
+			}
+		}
+		Files.deleteIfExists(dir);
+	}
+
+	/**
+	 * Sorted run being merged, with its smallest point not merged yet at the head.
+	 */
+	private static class RunReader implements Closeable {
+		private final DataInputStream in;
+		private long remaining;
+		private long head;
+
+		private RunReader(Path run, int bufferBytes) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), bufferBytes));
+			remaining = Files.size(run) / Long.BYTES;
+		}
+
+		private boolean advance() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			head = in.readLong();
+			remaining--;
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	/**
+	 * File of packed points in natural order, mapped in chunks.
+	 */
+	private static class SortedPoints implements Closeable {
+		private static final int CHUNK_POINTS = 1 << 27;
+		private final FileChannel channel;
+		private final LongBuffer[] chunks;
+		private final long size;
+
+		private SortedPoints(FileChannel channel, LongBuffer[] chunks, long size) {
+			this.channel = channel;
+			this.chunks = chunks;
+			this.size = size;
+		}
+
+		private static SortedPoints map(Path file) throws IOException {
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+			long size = channel.size() / Long.BYTES;
+			LongBuffer[] chunks = new LongBuffer[(int) ((size + CHUNK_POINTS - 1) / CHUNK_POINTS)];
+			for (int i = 0; i < chunks.length; i++) {
+				long from = (long) i * CHUNK_POINTS;
+				long bytes = Math.min(CHUNK_POINTS, size - from) * Long.BYTES;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, from * Long.BYTES, bytes).asLongBuffer();
+			}
+			return new SortedPoints(channel, chunks, size);
+		}
+
+		/**
+		 * Copies points from the given one on into the block.
+		 * @return the number of points copied
+		 */
+		private int read(long from, long[] block, int maxCount) {
+			int count = (int) Math.min(maxCount, size - from);
+			int copied = 0;
+			while (copied < count) {
+				long point = from + copied;
+				LongBuffer chunk = chunks[(int) (point / CHUNK_POINTS)].duplicate();
+				chunk.position((int) (point % CHUNK_POINTS));
+				int length = Math.min(count - copied, chunk.remaining());
+				chunk.get(block, copied, length);
+				copied += length;
+			}
+			return count;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Half of the budget holds the direction tables. A table holds all the groups of an anchor when it fits,
+	 * and as many such tables as fit serve a batch of anchors; tables are never smaller than a TABLES part of the half.
+	 * Otherwise the whole half is one table, and its anchor spills: a batch would spill its pairs all at once,
+	 * taking disk for every anchor of the batch to save only reads of the points.
+	 *
+	 * @return the number of slots of a direction table
+	 */
+	static int tableCapacity(int memoryBudget, long points) {
+		long allGroups = Long.highestOneBit(Math.max(2, points) * 2 - 1) << 1;
+		int perTable = Math.max(MIN_CAPACITY, Integer.highestOneBit(memoryBudget / 2 / TABLES));
+		if (allGroups <= perTable) {
+			return (int) allGroups;
+		}
+		return (int) Math.min(Math.max(MIN_CAPACITY, Integer.highestOneBit(memoryBudget / 2)), allGroups);
+	}
+
+	/**
+	 * @return the number of anchors scanned in one pass over the points, 1 if their points are spilled
+	 */
+	static int anchorBatch(int memoryBudget, long points) {
+		return Math.max(1, memoryBudget / 2 / tableCapacity(memoryBudget, points));
+	}
+
+	/**
+	 * A table holds half as many groups as it has slots. When the other points of an anchor may make more directions,
+	 * they are spilled into enough partitions for a partition to fill half a table on average, up to MAX_FAN_OUT;
+	 * bigger partitions are split again when grouped.
+	 *
+	 * @return the number of partitions the points of a batch are spilled into, 1 if they are grouped while read
+	 */
+	static int partitions(int memoryBudget, long points) {
+		int maxGroups = tableCapacity(memoryBudget, points) / 2;
+		if (points - 1 <= maxGroups) {
+			return 1;
+		}
+		return fanOut((points - 1) * 2, maxGroups);
+	}
+
+	/**
+	 * @return the power of 2 partitions, from 2 to MAX_FAN_OUT, needed for pairs to fill half of maxGroups
+	 * on average
+	 */
+	private static int fanOut(long pairs, int maxGroups) {
+		long needed = Math.min(MAX_FAN_OUT, Math.max(2, (pairs + maxGroups - 1) / maxGroups));
+		return (int) Long.highestOneBit(needed * 2 - 1);
+	}
+
+	/**
+	 * Groups batches of anchors directly while the sorted points are read, or single anchors from the partitions
+	 * their points are spilled to.
+	 */
+	private static class Detection implements Closeable {
+		private final SortedPoints points;
+		private final Writer out;
+		private final FileChannel pairs;
+		private final long[] block;
+		private final long[] anchors;
+		private final DirectionTable[] tables;
+		private final int maxGroups;
+		private final int partitionBits;
+		private final int chunkPairs;
+		private final ByteBuffer[] chunks = new ByteBuffer[MAX_FAN_OUT];
+		private final ByteBuffer input;
+		private long segments = 0;
+
+		private Detection(SortedPoints points, Path workDir, Writer out, int memoryBudget) throws IOException {
+			this.points = points;
+			this.out = out;
+			int capacity = tableCapacity(memoryBudget, points.size);
+			int batch = anchorBatch(memoryBudget, points.size);
+			block = new long[memoryBudget - memoryBudget / 2];
+			anchors = new long[batch];
+			tables = new DirectionTable[batch];
+			for (int i = 0; i < batch; i++) {
+				tables[i] = new DirectionTable(capacity);
+			}
+			maxGroups = capacity / 2;
+			partitionBits = Integer.numberOfTrailingZeros(partitions(memoryBudget, points.size));
+			chunkPairs = (int) Math.min(MAX_BUFFER_BYTES, Math.max(1 << 12, 16L * memoryBudget / MAX_FAN_OUT)) / PAIR_BYTES;
+			input = ByteBuffer.allocate(chunkPairs * PAIR_BYTES);
+			pairs = partitionBits == 0 ? null : FileChannel.open(workDir.resolve("pairs"), StandardOpenOption.CREATE_NEW,
+																  StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+
+		/**
+		 * Only the points with 3 bigger ones may be the smallest point of a segment, so only they are anchors.
+		 */
+		private long run() throws IOException {
+			long lastAnchor = points.size - 4;
+			for (long first = 0; first <= lastAnchor; first += anchors.length) {
+				int size = points.read(first, anchors, (int) Math.min(anchors.length, lastAnchor - first + 1));
+				for (int i = 0; i < size; i++) {
+					tables[i].clear(anchors[i]);
+				}
+				if (partitionBits == 0) {
+					group(size);
+				} else {
+					pairs.truncate(0);
+					for (Partition partition : spill(size)) {
+						group(partition, size);
+					}
+				}
+			}
+			return segments;
+		}
+
+		/**
+		 * Groups the points around every anchor of the batch while they are read, they are known to fit in the tables.
+		 */
+		private void group(int size) throws IOException {
+			for (long from = 0; from < points.size; from += block.length) {
+				int blockSize = points.read(from, block, block.length);
+				for (int j = 0; j < blockSize; j++) {
+					for (int i = 0; i < size; i++) {
+						if (block[j] != anchors[i]) {
+							tables[i].add(block[j]);
+						}
+					}
+				}
+			}
+			writeSegments(size);
+		}
+
+		/**
+		 * Reads the points once, writing the direction every point makes with the anchor to the partition
+		 * of the direction.
+		 */
+		private Partition[] spill(int size) throws IOException {
+			PartitionWriter writer = new PartitionWriter(0, partitionBits);
+			for (long from = 0; from < points.size; from += block.length) {
+				int blockSize = points.read(from, block, block.length);
+				for (int j = 0; j < blockSize; j++) {
+					for (int i = 0; i < size; i++) {
+						if (block[j] != anchors[i]) {
+							DirectionTable table = tables[i];
+							table.direction(block[j]);
+							writer.write(i, table.dx, table.dy, block[j]);
+						}
+					}
+				}
+			}
+			return writer.flush();
+		}
+
+		/**
+		 * Groups the pairs of a partition. A partition whose groups do not fit in the table of some anchor is split,
+		 * nothing is written for it then.
+		 */
+		private void group(Partition partition, int size) throws IOException {
+			boolean fits = true;
+			for (int c = 0; c < partition.chunks && fits; c++) {
+				ByteBuffer chunk = read(partition, c);
+				while (chunk.hasRemaining() && fits) {
+					fits = tables[chunk.getInt()].add(chunk.getLong(), chunk.getLong(), chunk.getLong());
+				}
+			}
+			if (fits) {
+				writeSegments(size);
+			}
+			for (int i = 0; i < size; i++) {
+				tables[i].clear(anchors[i]);
+			}
+			if (!fits) {
+				for (Partition part : split(partition)) {
+					group(part, size);
+				}
+			}
+		}
+
+		/**
+		 * Splits the partition by the next bits of the hash of the directions, into as many parts as it fills tables.
+		 * Parts are appended to the pairs file.
+		 */
+		private Partition[] split(Partition partition) throws IOException {
+			int bits = Integer.numberOfTrailingZeros(fanOut(partition.pairs, maxGroups * anchors.length));
+			if (partition.depth + bits > Long.SIZE) {
+				throw new IllegalStateException("Too many directions with the same hash around an anchor");
+			}
+			PartitionWriter writer = new PartitionWriter(partition.depth, bits);
+			for (int c = 0; c < partition.chunks; c++) {
+				ByteBuffer chunk = read(partition, c);
+				while (chunk.hasRemaining()) {
+					writer.write(chunk.getInt(), chunk.getLong(), chunk.getLong(), chunk.getLong());
+				}
+			}
+			return writer.flush();
+		}
+
+		private ByteBuffer read(Partition partition, int chunk) throws IOException {
+			input.clear().limit(partition.chunkSizes[chunk] * PAIR_BYTES);
+			long position = partition.chunkPositions[chunk];
+			while (input.hasRemaining()) {
+				position += pairs.read(input, position);
+			}
+			return input.flip();
+		}
+
+		private void writeSegments(int size) throws IOException {
+			for (int i = 0; i < size; i++) {
+				segments += tables[i].writeSegments(out);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (pairs != null) {
+				pairs.close();
+			}
+		}
+
+		/**
+		 * Writes pairs of a direction and a point, with the index of their anchor, to the partitions selected by
+		 * the bits of the hash of the direction after the first depth ones. Every partition is buffered in a chunk,
+		 * appended to the pairs file when full.
+		 */
+		private class PartitionWriter {
+			private final int depth;
+			private final int bits;
+			private final Partition[] parts;
+
+			private PartitionWriter(int depth, int bits) {
+				this.depth = depth;
+				this.bits = bits;
+				parts = new Partition[1 << bits];
+				for (int i = 0; i < parts.length; i++) {
+					parts[i] = new Partition(depth + bits);
+					if (chunks[i] == null) {
+						chunks[i] = ByteBuffer.allocate(chunkPairs * PAIR_BYTES);
+					}
+					chunks[i].clear();
+				}
+			}
+
+			private void write(int anchor, long dx, long dy, long point) throws IOException {
+				int part = (int) ((DirectionTable.hash(dx, dy) << depth) >>> (Long.SIZE - bits));
+				ByteBuffer chunk = chunks[part];
+				chunk.putInt(anchor).putLong(dx).putLong(dy).putLong(point);
+				if (!chunk.hasRemaining()) {
+					append(part);
+				}
+			}
+
+			private void append(int part) throws IOException {
+				ByteBuffer chunk = chunks[part].flip();
+				long position = pairs.size();
+				parts[part].add(position, chunk.remaining() / PAIR_BYTES);
+				while (chunk.hasRemaining()) {
+					position += pairs.write(chunk, position);
+				}
+				chunk.clear();
+			}
+
+			/**
+			 * @return the partitions, all of their pairs written
+			 */
+			private Partition[] flush() throws IOException {
+				for (int part = 0; part < parts.length; part++) {
+					if (chunks[part].position() > 0) {
+						append(part);
+					}
+				}
+				return parts;
+			}
+		}
+	}
+
+	/**
+	 * Chunks of the pairs file holding pairs of a direction and a point whose hash starts with the same depth bits.
+	 * The pairs of every anchor are in natural order of their points.
+	 */
+	private static class Partition {
+		private final int depth;
+		private long[] chunkPositions = new long[4];
+		private int[] chunkSizes = new int[4];
+		private int chunks = 0;
+		private long pairs = 0;
+
+		private Partition(int depth) {
+			this.depth = depth;
+		}
+
+		private void add(long position, int size) {
+			if (chunks == chunkPositions.length) {
+				chunkPositions = Arrays.copyOf(chunkPositions, chunks * 2);
+				chunkSizes = Arrays.copyOf(chunkSizes, chunks * 2);
+			}
+			chunkPositions[chunks] = position;
+			chunkSizes[chunks++] = size;
+			pairs += size;
+		}
+	}
+
+	/**
+	 * Groups of points by their direction from the anchor, keeping only the size and the ends of every group.
+	 * Open addressing hash table in primitive arrays, slots are stamped with the anchor they were filled for.
+	 */
+	private static class DirectionTable {
+		private final int mask;
+		private final int maxGroups;
+		private final long[] slotDxs;
+		private final long[] slotDys;
+		private final int[] slotStamps;
+		private final int[] slotSizes;
+		private final long[] slotFirstPoints;
+		private final long[] slotLastPoints;
+		private final int[] usedSlots;
+		private int usedSize;
+		private int stamp = 0;
+		private long anchor;
+		private int anchorX;
+		private int anchorY;
+		private long dx;
+		private long dy;
+
+		private DirectionTable(int capacity) {
+			mask = capacity - 1;
+			maxGroups = capacity / 2;
+			slotDxs = new long[capacity];
+			slotDys = new long[capacity];
+			slotStamps = new int[capacity];
+			slotSizes = new int[capacity];
+			slotFirstPoints = new long[capacity];
+			slotLastPoints = new long[capacity];
+			usedSlots = new int[maxGroups];
+		}
+
+		private void clear(long anchor) {
+			this.anchor = anchor;
+			anchorX = Points.unpackX(anchor);
+			anchorY = Points.unpackY(anchor);
+			usedSize = 0;
+			stamp++;
+		}
+
+		/**
+		 * Finds the direction of the point from the anchor, left in dx and dy.
+		 * Direction is taken towards the bigger of the anchor and the point, so both sides of a line share it.
+		 */
+		private void direction(long point) {
+			long x = (long) Points.unpackX(point) - anchorX;
+			long y = (long) Points.unpackY(point) - anchorY;
+			if (point < anchor) {
+				x = -x;
+				y = -y;
+			}
+			long gcd = gcd(Math.abs(x), y);
+			dx = x / gcd;
+			dy = y / gcd;
+		}
+
+		private void add(long point) {
+			direction(point);
+			add(dx, dy, point);
+		}
+
+		/**
+		 * Points come in natural order, so the first point of a group is its smallest and the last one its biggest.
+		 * @return false if there are too many groups
+		 */
+		private boolean add(long dx, long dy, long point) {
+			long h = hash(dx, dy);
+			int slot = (int) (h ^ (h >>> 32)) & mask;
+			while (slotStamps[slot] == stamp && (slotDxs[slot] != dx || slotDys[slot] != dy)) {
+				slot = (slot + 1) & mask;
+			}
+			if (slotStamps[slot] != stamp) {
+				if (usedSize == maxGroups) {
+					return false;
+				}
+				slotStamps[slot] = stamp;
+				slotDxs[slot] = dx;
+				slotDys[slot] = dy;
+				slotSizes[slot] = 0;
+				slotFirstPoints[slot] = point;
+				usedSlots[usedSize++] = slot;
+			}
+			slotLastPoints[slot] = point;
+			slotSizes[slot]++;
+			return true;
+		}
+
+		private static long hash(long dx, long dy) {
+			return (dx * 0x9E3779B97F4A7C15L + dy) * 0xC2B2AE3D27D4EB4FL;
+		}
+
+		private long writeSegments(Writer out) throws IOException {
+			long written = 0;
+			for (int i = 0; i < usedSize; i++) {
+				int slot = usedSlots[i];
+				if (slotSizes[slot] >= 3 && slotFirstPoints[slot] > anchor) {
+					out.write(new LineSegment(toPoint(anchor), toPoint(slotLastPoints[slot])).toString());
+					out.write(System.lineSeparator());
+					written++;
+				}
+			}
+			return written;
+		}
+
+		private static Point toPoint(long packed) {
+			return new Point(Points.unpackX(packed), Points.unpackY(packed));
+		}
+
+		private static long gcd(long a, long b) {
+			while (b != 0) {
+				long t = a % b;
+				a = b;
+				b = t;
+			}
+			return a;
+		}
+	}
+}
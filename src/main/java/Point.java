@@ -69,11 +69,30 @@ public class Point implements Comparable<Point> {
 		if (hasSameY(that)) {
 			return 0.0d;
 		}
-		double dy = 1.0d * (that.y - this.y);
-		double dx = 1.0d * (that.x - this.x);
+		double dy = (long) that.y - this.y;
+		double dx = (long) that.x - this.x;
 		return dy / dx;
 	}
 
+	/**
+	 * Returns the <em>x</em>-coordinate of this point.
+	 * Used by the collinear points engines that keep coordinates in primitive arrays.
+	 *
+	 * @return the <em>x</em>-coordinate
+	 */
+	int x() {
+		return x;
+	}
+
+	/**
+	 * Returns the <em>y</em>-coordinate of this point.
+	 *
+	 * @return the <em>y</em>-coordinate
+	 */
+	int y() {
+		return y;
+	}
+
 	private boolean hasSameX(Point that) {
 		return x == that.x;
 	}
@@ -103,19 +122,20 @@ public class Point implements Comparable<Point> {
 			return 0;
 		}
 		if (hasSameY(that)) {
-			return (x - that.x);
+			return Integer.compare(x, that.x);
 		}
-		return (y - that.y);
+		return Integer.compare(y, that.y);
 	}
 
 	/**
 	 * Compares two points by the slope they make with this point.
-	 * The slope is defined as in the slopeTo() method.
+	 * The slope is defined as in the slopeTo() method, but slopes are compared exactly, by cross-multiplication,
+	 * so distinct slopes which are equal as doubles are still told apart.
 	 *
 	 * @return the Comparator that defines this ordering on points
 	 */
 	public Comparator<Point> slopeOrder() {
-		return Comparator.comparingDouble(this::slopeTo);
+		return (a, b) -> Slopes.compare(x, y, a.x, a.y, b.x, b.y);
 	}
 
 	/**
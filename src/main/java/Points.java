@@ -0,0 +1,153 @@
+import java.util.Arrays;
+
+/**
+ * Points collection.
+ * Coordinates are kept in parallel primitive arrays sorted in the natural order of {@link Point}
+ * (by y, then by x), so a point is identified by its index.
+ */
+final class Points {
+	private final int[] xs;
+	private final int[] ys;
+
+	private Points(long[] packed) {
+		new PointsValidator(packed).validate();
+		xs = new int[packed.length];
+		ys = new int[packed.length];
+		for (int i = 0; i < packed.length; i++) {
+			xs[i] = unpackX(packed[i]);
+			ys[i] = unpackY(packed[i]);
+		}
+	}
+
+	static Points of(Point[] inPoints) {
+		long[] packed = new long[inPoints.length];
+		for (int i = 0; i < inPoints.length; i++) {
+			if (inPoints[i] == null) {
+				throw new IllegalArgumentException();
+			}
+			packed[i] = pack(inPoints[i].x(), inPoints[i].y());
+		}
+		return new Points(packed);
+	}
+
+	static Points of(int[] xs, int[] ys) {
+		long[] packed = new long[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			packed[i] = pack(xs[i], ys[i]);
+		}
+		return new Points(packed);
+	}
+
+	/**
+	 * Packs coordinates so that the natural order of longs is the natural order of points.
+	 */
+	static long pack(int x, int y) {
+		return ((long) y << 32) | ((x ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+	}
+
+	static int unpackX(long packed) {
+		return (int) packed ^ Integer.MIN_VALUE;
+	}
+
+	static int unpackY(long packed) {
+		return (int) (packed >> 32);
+	}
+
+	int size() {
+		return xs.length;
+	}
+
+	int x(int i) {
+		return xs[i];
+	}
+
+	int y(int i) {
+		return ys[i];
+	}
+
+	Point toPoint(int i) {
+		return new Point(xs[i], ys[i]);
+	}
+
+	/**
+	 * Fills candidates with the points after thePoint, and slopes with their slope keys, computed once per candidate.
+	 * Points marked with thePoint in excludedBy are skipped.
+	 * @return the number of candidates
+	 */
+	int slopesFrom(int thePoint, int[] excludedBy, int[] candidates, double[] slopes) {
+		int size = 0;
+		for (int i = thePoint + 1; i < size(); i++) {
+			if (excludedBy[i] != thePoint) {
+				candidates[size] = i;
+				slopes[size++] = slopeTo(thePoint, i);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Fills candidates with all the points but thePoint in natural order, and slopes with their slope keys.
+	 * Slope of a line does not depend on its direction, so points on both sides of thePoint get the same key.
+	 * @return the number of candidates
+	 */
+	int slopesAround(int thePoint, int[] candidates, double[] slopes) {
+		int size = 0;
+		for (int i = 0; i < size(); i++) {
+			if (i != thePoint) {
+				candidates[size] = i;
+				slopes[size++] = slopeTo(thePoint, i);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Slope between two distinct points, defined as in {@link Point#slopeTo(Point)}.
+	 */
+	double slopeTo(int from, int to) {
+		if (xs[from] == xs[to]) {
+			return Double.POSITIVE_INFINITY;
+		}
+		if (ys[from] == ys[to]) {
+			return 0.0d;
+		}
+		double dy = (double) ys[to] - ys[from];
+		double dx = (double) xs[to] - xs[from];
+		return dy / dx;
+	}
+
+	boolean isSlopeEqual(int thePoint, int a, int b) {
+		return compareSlopes(thePoint, a, b) == 0;
+	}
+
+	/**
+	 * Compares slopes from thePoint to a and to b exactly, see {@link Slopes}.
+	 */
+	int compareSlopes(int thePoint, int a, int b) {
+		return Slopes.compare(xs[thePoint], ys[thePoint], xs[a], ys[a], xs[b], ys[b]);
+	}
+
+	private static class PointsValidator {
+		private final long[] packedPoints;
+
+		private PointsValidator(long[] packedPoints) {
+			this.packedPoints = packedPoints;
+		}
+
+		/**
+		 * Sorts the packed points in place and checks that all of them are distinct.
+		 */
+		private void validate() {
+			Arrays.sort(packedPoints);
+			for (int i = 1; i < packedPoints.length; i++) {
+				checkAllPointsAreDistinct(i);
+			}
+		}
+
+		private void checkAllPointsAreDistinct(int i) {
+			if (packedPoints[i - 1] == packedPoints[i]) {
+				throw new IllegalArgumentException();
+			}
+		}
+	}
+}
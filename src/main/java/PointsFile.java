@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Files of points, either compact binary or text in the algs4 format.
+ *
+ * Format: a 16 byte header holding the magic number "COLP", the format version and the number of points (int64),
+ * followed by the points as pairs of int32 x and y. All values are little-endian.
+ *
+ * The file is read through memory mapping straight into the coordinate arrays taken by
+ * {@link FastCollinearPoints#FastCollinearPoints(int[], int[])}, no {@link Point} objects are created.
+ * Text files are parsed byte by byte into the same arrays, see {@link #readText(Path)}.
+ */
+public final class PointsFile {
+	static final int MAGIC = 0x50_4C_4F_43;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+	static final int POINT_BYTES = 8;
+	static final long MAX_MAPPED_BYTES = (Integer.MAX_VALUE / POINT_BYTES) * (long) POINT_BYTES;
+
+	private final int[] xs;
+	private final int[] ys;
+
+	PointsFile(int[] xs, int[] ys) {
+		this.xs = xs;
+		this.ys = ys;
+	}
+
+	/**
+	 * @return the number of points
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * @return x-coordinates of the points, in file order
+	 */
+	public int[] xs() {
+		return xs;
+	}
+
+	/**
+	 * @return y-coordinates of the points, in file order
+	 */
+	public int[] ys() {
+		return ys;
+	}
+
+	/**
+	 * Reads a binary points file.
+	 *
+	 * @param file
+	 * @return the points
+	 * @throws IOException if the file cannot be read or is not a valid points file
+	 */
+	public static PointsFile read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			int size = readHeader(file, channel);
+			int[] xs = new int[size];
+			int[] ys = new int[size];
+			int i = 0;
+			long position = HEADER_BYTES;
+			while (i < size) {
+				long bytes = Math.min(MAX_MAPPED_BYTES, (long) (size - i) * POINT_BYTES);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes);
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				while (buffer.hasRemaining()) {
+					xs[i] = buffer.getInt();
+					ys[i++] = buffer.getInt();
+				}
+				position += bytes;
+			}
+			return new PointsFile(xs, ys);
+		}
+	}
+
+	/**
+	 * Reads a text points file in the algs4 format: the number of points n, then n pairs of x and y,
+	 * all separated by whitespace.
+	 *
+	 * @param file
+	 * @return the points
+	 * @throws IOException if the file cannot be read or is malformed, the message holds the line number
+	 */
+	public static PointsFile readText(Path file) throws IOException {
+		return PointsTextParser.parse(file);
+	}
+
+	static int readHeader(Path file, FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		while (header.hasRemaining()) {
+			if (channel.read(header) < 0) {
+				throw new IOException("Not a points file: " + file);
+			}
+		}
+		header.flip();
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Not a points file: " + file);
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported points file version " + version + ": " + file);
+		}
+		long size = header.getLong();
+		if (size < 0 || size > Integer.MAX_VALUE - 8 || channel.size() != HEADER_BYTES + size * POINT_BYTES) {
+			throw new IOException("Corrupted points file, " + size + " points declared: " + file);
+		}
+		return (int) size;
+	}
+
+	/**
+	 * Writes a binary points file.
+	 *
+	 * @param file
+	 * @param xs x-coordinates of the points
+	 * @param ys y-coordinates of the points
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if any of the arrays is null or the arrays differ in length
+	 */
+	public static void write(Path file, int[] xs, int[] ys) throws IOException {
+		if (xs == null || ys == null || xs.length != ys.length) {
+			throw new IllegalArgumentException();
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+													StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(VERSION).putLong(xs.length);
+			for (int i = 0; i < xs.length; i++) {
+				if (buffer.remaining() < POINT_BYTES) {
+					flush(channel, buffer);
+				}
+				buffer.putInt(xs[i]).putInt(ys[i]);
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Converts a text file in the algs4 format (the number of points n, then n pairs of x and y) to a binary points file.
+	 *
+	 * @param textFile
+	 * @param binaryFile
+	 * @throws IOException if any of the files cannot be accessed or the text file is malformed
+	 */
+	public static void convert(Path textFile, Path binaryFile) throws IOException {
+		PointsFile points = readText(textFile);
+		write(binaryFile, points.xs, points.ys);
+	}
+
+	/**
+	 * Converts a text points file to a binary one.
+	 * Usage: java PointsFile input.txt output.bin
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: java PointsFile input.txt output.bin");
+			System.exit(1);
+		}
+		convert(Path.of(args[0]), Path.of(args[1]));
+	}
+}
@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parser of text points files in the algs4 format: the number of points n, then n pairs of x and y,
+ * all separated by whitespace.
+ *
+ * Bytes are read through a reused buffer and integers are parsed in place, so no String is created per line.
+ * Malformed input is reported with its line number.
+ */
+final class PointsTextParser {
+	private static final int BUFFER_BYTES = 1 << 16;
+	private static final int EOF = -1;
+	private static final int MAX_DIGITS = 10;
+	private static final int MIN_POINT_BYTES = 4;
+	private static final long COUNT = -1;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+	private int line = 1;
+	private int size = 0;
+
+	private PointsTextParser(Path file, FileChannel channel) {
+		this.file = file;
+		this.channel = channel;
+		buffer.flip();
+	}
+
+	/**
+	 * Parses the file.
+	 *
+	 * @return the points
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	static PointsFile parse(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new PointsTextParser(file, channel).parse();
+		}
+	}
+
+	private PointsFile parse() throws IOException {
+		size = nextInt(COUNT);
+		if (size < 0) {
+			throw error("negative number of points " + size);
+		}
+		long remaining = remainingBytes();
+		if ((long) size * MIN_POINT_BYTES > remaining) {
+			throw error(size + " points cannot fit in the remaining " + remaining + " bytes");
+		}
+		int[] xs = new int[size];
+		int[] ys = new int[size];
+		for (int i = 0; i < size; i++) {
+			xs[i] = nextInt(2L * i);
+			ys[i] = nextInt(2L * i + 1);
+		}
+		if (skipWhitespace() != EOF) {
+			throw error("unexpected content after " + size + " points");
+		}
+		return new PointsFile(xs, ys);
+	}
+
+	/**
+	 * Every point takes at least {@link #MIN_POINT_BYTES}: a separator and two one digit coordinates split by a space,
+	 * so a count bigger than the remaining bytes allow is rejected before its arrays are allocated.
+	 */
+	private long remainingBytes() throws IOException {
+		return channel.size() - channel.position() + buffer.remaining();
+	}
+
+	/**
+	 * @param expected {@link #COUNT} or 2 * point index for x, 2 * point index + 1 for y,
+	 * described in the error message only when parsing fails
+	 */
+	private int nextInt(long expected) throws IOException {
+		int b = skipWhitespace();
+		if (b == EOF) {
+			throw error("unexpected end of file", expected);
+		}
+		boolean negative = b == '-';
+		if (b == '-' || b == '+') {
+			b = read();
+		}
+		long value = 0;
+		int digits = 0;
+		while (b >= '0' && b <= '9') {
+			if (++digits > MAX_DIGITS) {
+				throw error("integer out of range", expected);
+			}
+			value = value * 10 + (b - '0');
+			b = read();
+		}
+		if (digits == 0 || (b != EOF && !isWhitespace(b))) {
+			throw error("not an integer", expected);
+		}
+		unread(b);
+		value = negative ? -value : value;
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw error("integer out of range", expected);
+		}
+		return (int) value;
+	}
+
+	private int skipWhitespace() throws IOException {
+		int b = read();
+		while (b != EOF && isWhitespace(b)) {
+			b = read();
+		}
+		return b;
+	}
+
+	private static boolean isWhitespace(int b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+	}
+
+	private int read() throws IOException {
+		if (!buffer.hasRemaining()) {
+			buffer.clear();
+			int read = channel.read(buffer);
+			buffer.flip();
+			if (read <= 0) {
+				return EOF;
+			}
+		}
+		int b = buffer.get() & 0xFF;
+		if (b == '\n') {
+			line++;
+		}
+		return b;
+	}
+
+	/**
+	 * Steps back over the last byte read, so a newline ending a number is counted once it is really consumed.
+	 */
+	private void unread(int b) {
+		if (b == EOF) {
+			return;
+		}
+		buffer.position(buffer.position() - 1);
+		if (b == '\n') {
+			line--;
+		}
+	}
+
+	private IOException error(String message) {
+		return new IOException(file + ":" + line + ": " + message);
+	}
+
+	private IOException error(String message, long expected) {
+		if (expected == COUNT) {
+			return error(message + ", expected the number of points");
+		}
+		String coordinate = expected % 2 == 0 ? "x" : "y";
+		return error(message + ", expected " + coordinate + "-coordinate of point " + (expected / 2 + 1) + " of " + size);
+	}
+}
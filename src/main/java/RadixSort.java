@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * Stable LSD radix sort of double keys together with a parallel array of point indices.
+ *
+ * Keys are sorted by their bit patterns, turned into longs of the same order as {@link Double#compare(double, double)},
+ * 11 bits at a time. Counts of all digits are taken in one pass and digits shared by all the keys are skipped,
+ * so slopes differing only in their top bits cost a few passes. Short arrays are insertion sorted
+ * and sorted arrays are left as they are. Counts are reused, so sorting does not allocate.
+ */
+final class RadixSort {
+	private static final int INSERTION_SORT_CUTOFF = 64;
+	private static final int DIGIT_BITS = 11;
+	private static final int RADIX = 1 << DIGIT_BITS;
+	private static final int DIGITS = (Long.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+	private final int[] counts = new int[DIGITS * RADIX];
+
+	/**
+	 * Sorts the first n keys and the parallel array of indices together by key, using the given aux buffers.
+	 * The sort is stable.
+	 */
+	void sort(double[] keys, int[] indices, double[] auxKeys, int[] auxIndices, int n) {
+		if (isSorted(keys, n)) {
+			return;
+		}
+		if (n < INSERTION_SORT_CUTOFF) {
+			insertionSort(keys, indices, n);
+			return;
+		}
+		countDigits(keys, n);
+		double[] fromKeys = keys;
+		int[] fromIndices = indices;
+		double[] toKeys = auxKeys;
+		int[] toIndices = auxIndices;
+		long firstBits = sortableBits(keys[0]);
+		for (int digit = 0; digit < DIGITS; digit++) {
+			int offset = digit * RADIX;
+			if (counts[offset + digitOf(firstBits, digit)] == n) {
+				continue;
+			}
+			int start = 0;
+			for (int i = offset; i < offset + RADIX; i++) {
+				int count = counts[i];
+				counts[i] = start;
+				start += count;
+			}
+			for (int i = 0; i < n; i++) {
+				int to = counts[offset + digitOf(sortableBits(fromKeys[i]), digit)]++;
+				toKeys[to] = fromKeys[i];
+				toIndices[to] = fromIndices[i];
+			}
+			double[] swapKeys = fromKeys;
+			fromKeys = toKeys;
+			toKeys = swapKeys;
+			int[] swapIndices = fromIndices;
+			fromIndices = toIndices;
+			toIndices = swapIndices;
+		}
+		if (fromKeys != keys) {
+			System.arraycopy(fromKeys, 0, keys, 0, n);
+			System.arraycopy(fromIndices, 0, indices, 0, n);
+		}
+	}
+
+	private void countDigits(double[] keys, int n) {
+		Arrays.fill(counts, 0);
+		for (int i = 0; i < n; i++) {
+			long bits = sortableBits(keys[i]);
+			for (int digit = 0; digit < DIGITS; digit++) {
+				counts[digit * RADIX + digitOf(bits, digit)]++;
+			}
+		}
+	}
+
+	private static boolean isSorted(double[] keys, int n) {
+		for (int i = 1; i < n; i++) {
+			if (Double.compare(keys[i - 1], keys[i]) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void insertionSort(double[] keys, int[] indices, int n) {
+		for (int i = 1; i < n; i++) {
+			double key = keys[i];
+			int index = indices[i];
+			int j = i - 1;
+			while (j >= 0 && Double.compare(keys[j], key) > 0) {
+				keys[j + 1] = keys[j];
+				indices[j + 1] = indices[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			indices[j + 1] = index;
+		}
+	}
+
+	/**
+	 * Negative keys get all bits flipped, the others only the sign bit, so unsigned order of the result
+	 * is the order of the keys. Slopes are never NaN.
+	 */
+	static long sortableBits(double key) {
+		long bits = Double.doubleToRawLongBits(key);
+		return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+	}
+
+	private static int digitOf(long bits, int digit) {
+		return (int) (bits >>> (digit * DIGIT_BITS)) & (RADIX - 1);
+	}
+}
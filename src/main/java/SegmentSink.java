@@ -0,0 +1,12 @@
+/**
+ * Receives runs of candidates collinear with the anchor point.
+ */
+interface SegmentSink {
+	/**
+	 * @param firstPoint the anchor point
+	 * @param candidates candidates of the anchor point, the run holds those collinear with it in their natural order
+	 * @param start first candidate of the run
+	 * @param end last candidate of the run (inclusive)
+	 */
+	void addSegment(int firstPoint, int[] candidates, int start, int end);
+}
@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+/**
+ * Segments collection.
+ * Segments are kept as pairs of point indices, line segment objects are created on demand.
+ */
+class Segments implements SegmentSink {
+	private final Points points;
+	private final LongHashSet lines = new LongHashSet();
+	private int[] firstPoints;
+	private int[] lastPoints;
+	private int segmentsSize = 0;
+
+	Segments(Points points) {
+		this.points = points;
+		firstPoints = new int[10];
+		lastPoints = new int[10];
+	}
+
+	LineSegment[] getSegments() {
+		LineSegment[] lineSegments = new LineSegment[segmentsSize];
+		for (int i = 0; i < segmentsSize; i++) {
+			lineSegments[i] = new LineSegment(points.toPoint(firstPoints[i]), points.toPoint(lastPoints[i]));
+		}
+		return lineSegments;
+	}
+
+	int size() {
+		return segmentsSize;
+	}
+
+	/**
+	 * A run holds all points after the anchor on the line in their natural order, so its last two points
+	 * are the same for every anchor on the line and identify the line. Anchors are scanned in order,
+	 * hence the first run of a line starts at its smallest point and is the maximal segment.
+	 */
+	@Override
+	public void addSegment(int firstPoint, int[] candidates, int start, int end) {
+		addIfNew(firstPoint, candidates, end);
+	}
+
+	final boolean addIfNew(int firstPoint, int[] candidates, int end) {
+		if (lines.add(lineKey(candidates[end - 1], candidates[end]))) {
+			addSegment(firstPoint, candidates[end]);
+			return true;
+		}
+		return false;
+	}
+
+	private static long lineKey(int oneBeforeLastPoint, int lastPoint) {
+		return ((long) oneBeforeLastPoint << 32) | lastPoint;
+	}
+
+	/**
+	 * Adds a segment known to be unique.
+	 */
+	void addSegment(int firstPoint, int lastPoint) {
+		if (segmentsSize == firstPoints.length) {
+			firstPoints = Arrays.copyOf(firstPoints, segmentsSize * 2);
+			lastPoints = Arrays.copyOf(lastPoints, segmentsSize * 2);
+		}
+		firstPoints[segmentsSize] = firstPoint;
+		lastPoints[segmentsSize++] = lastPoint;
+	}
+
+	/**
+	 * Segments collection measuring deduplication into the stats.
+	 */
+	static final class Measured extends Segments {
+		private final CollinearStats stats;
+
+		Measured(Points points, CollinearStats stats) {
+			super(points);
+			this.stats = stats;
+		}
+
+		/**
+		 * Runs are collected during the scan, so the time of deduplication is moved from the scan phase.
+		 */
+		@Override
+		public void addSegment(int firstPoint, int[] candidates, int start, int end) {
+			long begin = System.nanoTime();
+			boolean added = addIfNew(firstPoint, candidates, end);
+			long elapsed = System.nanoTime() - begin;
+			stats.dedupNanos += elapsed;
+			stats.scanNanos -= elapsed;
+			if (added) {
+				stats.segments++;
+			} else {
+				stats.duplicates++;
+			}
+		}
+	}
+}
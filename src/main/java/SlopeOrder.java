@@ -0,0 +1,44 @@
+/**
+ * Exact slope order of point indices with respect to the anchor point.
+ */
+class SlopeOrder implements IntComparator {
+	private final Points points;
+	int anchor;
+
+	SlopeOrder(Points points) {
+		this.points = points;
+	}
+
+	@Override
+	public int compare(int a, int b) {
+		return points.compareSlopes(anchor, a, b);
+	}
+
+	boolean isEqual(int a, int b) {
+		return points.isSlopeEqual(anchor, a, b);
+	}
+
+	/**
+	 * Slope order counting its comparisons into the stats, used only when the scan is measured.
+	 */
+	static final class Counting extends SlopeOrder {
+		private final CollinearStats stats;
+
+		Counting(Points points, CollinearStats stats) {
+			super(points);
+			this.stats = stats;
+		}
+
+		@Override
+		public int compare(int a, int b) {
+			stats.comparisons++;
+			return super.compare(a, b);
+		}
+
+		@Override
+		boolean isEqual(int a, int b) {
+			stats.comparisons++;
+			return super.isEqual(a, b);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Exact, division free slope comparisons on integer coordinates.
+ *
+ * Slopes are ordered as in {@link Point#slopeTo(Point)}: a point equal to the origin makes the smallest slope,
+ * a vertical line makes the biggest one and the remaining slopes dy/dx are compared by cross-multiplication.
+ * Coordinate deltas are widened to long and products are compared with 128 bit precision when needed,
+ * so the comparison is exact over the full int range and equal slopes are always grouped together.
+ */
+final class Slopes {
+	private static final int DEGENERATE = 0;
+	private static final int FINITE = 1;
+	private static final int VERTICAL = 2;
+	private static final long SMALL_DELTA = 1L << 31;
+
+	private Slopes() {
+	}
+
+	/**
+	 * Compares the slope from (x0, y0) to (x1, y1) with the slope from (x0, y0) to (x2, y2).
+	 *
+	 * @return a negative integer, zero, or a positive integer as the first slope
+	 * is less than, equal to, or greater than the second one
+	 */
+	static int compare(int x0, int y0, int x1, int y1, int x2, int y2) {
+		return compare((long) x1 - x0, (long) y1 - y0, (long) x2 - x0, (long) y2 - y0);
+	}
+
+	/**
+	 * Compares slope dy1/dx1 with slope dy2/dx2.
+	 */
+	static int compare(long dx1, long dy1, long dx2, long dy2) {
+		int rank1 = rank(dx1, dy1);
+		int rank2 = rank(dx2, dy2);
+		if (rank1 != FINITE || rank2 != FINITE) {
+			return Integer.compare(rank1, rank2);
+		}
+		if (dx1 < 0) {
+			dx1 = -dx1;
+			dy1 = -dy1;
+		}
+		if (dx2 < 0) {
+			dx2 = -dx2;
+			dy2 = -dy2;
+		}
+		return compareProducts(dy1, dx2, dy2, dx1);
+	}
+
+	private static int rank(long dx, long dy) {
+		if (dx != 0) {
+			return FINITE;
+		}
+		return dy == 0 ? DEGENERATE : VERTICAL;
+	}
+
+	/**
+	 * Compares a*b with c*d without overflow.
+	 */
+	private static int compareProducts(long a, long b, long c, long d) {
+		if (isSmall(a) && isSmall(b) && isSmall(c) && isSmall(d)) {
+			return Long.compare(a * b, c * d);
+		}
+		int high = Long.compare(Math.multiplyHigh(a, b), Math.multiplyHigh(c, d));
+		if (high != 0) {
+			return high;
+		}
+		return Long.compareUnsigned(a * b, c * d);
+	}
+
+	private static boolean isSmall(long value) {
+		return -SMALL_DELTA < value && value < SMALL_DELTA;
+	}
+}
@@ -0,0 +1,372 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds local line segments: maximal runs of 4 or more collinear points in which every two consecutive points
+ * are at most maxGap apart in both coordinates. Points far from each other are never compared.
+ *
+ * The plane is split into square tiles of side 4 * maxGap and every tile is grown by 3 * maxGap on each side,
+ * so any 4 consecutive points of a run lie together in the grown tile of the first of them. Runs are found in every
+ * grown tile, in parallel, with the {@link FastCollinearPoints} anchor scan. A grown tile is convex, so a run found
+ * in it holds all the points between its ends and runs of the same segment found in neighbouring tiles share two
+ * consecutive points, which is how they are stitched back into maximal segments.
+ *
+ * Performance. The running time is the sum of m2 log m over the grown tiles, where m is the number of points
+ * in a grown tile, so it depends on the local density of points rather than on n2.
+ */
+public class TiledCollinearPoints {
+	private static final long TILE_GAPS = 4;
+	private static final long MARGIN_GAPS = 3;
+	private final Points points;
+	private final long maxGap;
+	private final long tileSide;
+	private final Segments segments;
+
+	/**
+	 * Finds all local line segments, processing tiles in the common pool.
+	 *
+	 * @param inPoints
+	 * @param maxGap maximal distance, in each coordinate, between two consecutive points of a segment
+	 * @throws IllegalArgumentException if the points are null, if any point in the array is null,
+	 * if the array contains a repeated point, or if maxGap is not positive.
+	 */
+	public TiledCollinearPoints(Point[] inPoints, int maxGap) {
+		this(inPoints, maxGap, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds all local line segments, processing tiles in the given pool.
+	 *
+	 * @param inPoints
+	 * @param maxGap maximal distance, in each coordinate, between two consecutive points of a segment
+	 * @param pool pool that runs the tile tasks
+	 * @throws IllegalArgumentException if any of the arguments is null, if any point in the array is null,
+	 * if the array contains a repeated point, or if maxGap is not positive.
+	 */
+	public TiledCollinearPoints(Point[] inPoints, int maxGap, ForkJoinPool pool) {
+		if (inPoints == null || pool == null || maxGap <= 0) {
+			throw new IllegalArgumentException();
+		}
+		points = Points.of(inPoints);
+		this.maxGap = maxGap;
+		tileSide = TILE_GAPS * maxGap;
+		segments = new Segments(points);
+		if (points.size() >= 4) {
+			calculateLineSegments(pool);
+		}
+	}
+
+	private void calculateLineSegments(ForkJoinPool pool) {
+		Tiles tiles = new Tiles();
+		Pieces[] pieces = new Pieces[tiles.size()];
+		pool.invoke(new TileTask(tiles, pieces, 0, tiles.size()));
+		stitch(pieces);
+	}
+
+	/**
+	 * Joins pieces sharing two consecutive points, every group of joined pieces is one segment.
+	 */
+	private void stitch(Pieces[] tilePieces) {
+		Pieces pieces = new Pieces();
+		for (Pieces tile : tilePieces) {
+			pieces.addAll(tile);
+		}
+		int[] parents = new int[pieces.size()];
+		Map<Long, Integer> piecesOfPairs = new HashMap<>();
+		for (int piece = 0; piece < pieces.size(); piece++) {
+			parents[piece] = piece;
+			for (int i = pieces.start(piece); i < pieces.end(piece) - 1; i++) {
+				long pair = ((long) pieces.members[i] << 32) | pieces.members[i + 1];
+				Integer other = piecesOfPairs.putIfAbsent(pair, piece);
+				if (other != null) {
+					union(parents, other, piece);
+				}
+			}
+		}
+		long[] ends = new long[pieces.size()];
+		Arrays.fill(ends, -1L);
+		for (int piece = 0; piece < pieces.size(); piece++) {
+			int root = find(parents, piece);
+			int first = pieces.members[pieces.start(piece)];
+			int last = pieces.members[pieces.end(piece) - 1];
+			if (ends[root] < 0) {
+				ends[root] = ((long) first << 32) | last;
+			} else {
+				ends[root] = ((long) Math.min(first, (int) (ends[root] >>> 32)) << 32)
+						| Math.max(last, (int) ends[root]);
+			}
+		}
+		long[] segmentEnds = Arrays.stream(ends).filter(end -> end >= 0).sorted().toArray();
+		for (long end : segmentEnds) {
+			segments.addSegment((int) (end >>> 32), (int) end);
+		}
+	}
+
+	private static int find(int[] parents, int piece) {
+		while (parents[piece] != piece) {
+			parents[piece] = parents[parents[piece]];
+			piece = parents[piece];
+		}
+		return piece;
+	}
+
+	private static void union(int[] parents, int a, int b) {
+		int rootA = find(parents, a);
+		int rootB = find(parents, b);
+		if (rootA != rootB) {
+			parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+		}
+	}
+
+	/**
+	 * Number of line segments
+	 * @return 	the number of line segments
+	 */
+	public int numberOfSegments() {
+		return segments.size();
+	}
+
+	/**
+	 * Each maximal local line segment containing 4 (or more) points exactly once.
+	 * @return the line segments
+	 */
+	public LineSegment[] segments() {
+		return segments.getSegments();
+	}
+
+	/****************************************************************************
+	 * Tiles.
+	 * Points are grouped by tile, a group keeps the natural order of points.
+	 ****************************************************************************/
+	private class Tiles {
+		private final long[] tileKeys;
+		private final int[] pointsByTile;
+		private final Map<Long, Integer> tilesByKey = new HashMap<>();
+		private int[] tileStarts = new int[16];
+		private int tilesSize = 0;
+
+		private Tiles() {
+			tileKeys = new long[points.size()];
+			pointsByTile = new int[points.size()];
+			for (int i = 0; i < points.size(); i++) {
+				tileKeys[i] = tileKey(Math.floorDiv(points.x(i), tileSide), Math.floorDiv(points.y(i), tileSide));
+				pointsByTile[i] = i;
+			}
+			MergeSort.sort(pointsByTile, new int[points.size()], 0, points.size() - 1,
+						   (a, b) -> Long.compare(tileKeys[a], tileKeys[b]));
+			for (int i = 0; i < points.size(); i++) {
+				if (i == 0 || tileKeys[pointsByTile[i]] != tileKeys[pointsByTile[i - 1]]) {
+					addTile(i);
+				}
+			}
+			tileStarts[tilesSize] = points.size();
+		}
+
+		private void addTile(int start) {
+			if (tilesSize + 1 >= tileStarts.length) {
+				tileStarts = Arrays.copyOf(tileStarts, tileStarts.length * 2);
+			}
+			tilesByKey.put(tileKeys[pointsByTile[start]], tilesSize);
+			tileStarts[tilesSize++] = start;
+		}
+
+		private int size() {
+			return tilesSize;
+		}
+
+		/**
+		 * @return points of the tile grown by the margin, in natural order
+		 */
+		private int[] grownTile(int tile) {
+			long key = tileKeys[pointsByTile[tileStarts[tile]]];
+			long tileX = key >> 32;
+			long tileY = (int) key;
+			long margin = MARGIN_GAPS * maxGap;
+			long minX = tileX * tileSide - margin;
+			long maxX = (tileX + 1) * tileSide + margin;
+			long minY = tileY * tileSide - margin;
+			long maxY = (tileY + 1) * tileSide + margin;
+			int[] grown = new int[16];
+			int grownSize = 0;
+			for (long x = tileX - 1; x <= tileX + 1; x++) {
+				for (long y = tileY - 1; y <= tileY + 1; y++) {
+					Integer neighbour = tilesByKey.get(tileKey(x, y));
+					if (neighbour == null) {
+						continue;
+					}
+					for (int i = tileStarts[neighbour]; i < tileStarts[neighbour + 1]; i++) {
+						int point = pointsByTile[i];
+						if (minX <= points.x(point) && points.x(point) < maxX
+								&& minY <= points.y(point) && points.y(point) < maxY) {
+							if (grownSize == grown.length) {
+								grown = Arrays.copyOf(grown, grownSize * 2);
+							}
+							grown[grownSize++] = point;
+						}
+					}
+				}
+			}
+			int[] tilePoints = Arrays.copyOf(grown, grownSize);
+			Arrays.sort(tilePoints);
+			return tilePoints;
+		}
+
+		private long tileKey(long tileX, long tileY) {
+			return (tileX << 32) | (tileY & 0xFFFFFFFFL);
+		}
+	}
+
+	/**
+	 * Finds pieces of segments in ranges of tiles.
+	 */
+	private class TileTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int TILES_PER_TASK = 4;
+		private final Tiles tiles;
+		private final Pieces[] pieces;
+		private final int from;
+		private final int to;
+
+		private TileTask(Tiles tiles, Pieces[] pieces, int from, int to) {
+			this.tiles = tiles;
+			this.pieces = pieces;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > TILES_PER_TASK) {
+				int mid = from + (to - from) / 2;
+				invokeAll(new TileTask(tiles, pieces, from, mid), new TileTask(tiles, pieces, mid, to));
+				return;
+			}
+			for (int tile = from; tile < to; tile++) {
+				pieces[tile] = piecesOf(tiles.grownTile(tile));
+			}
+		}
+
+		private Pieces piecesOf(int[] tilePoints) {
+			Pieces tilePieces = new Pieces();
+			if (tilePoints.length < 4) {
+				return tilePieces;
+			}
+			int[] xs = new int[tilePoints.length];
+			int[] ys = new int[tilePoints.length];
+			for (int i = 0; i < tilePoints.length; i++) {
+				xs[i] = points.x(tilePoints[i]);
+				ys[i] = points.y(tilePoints[i]);
+			}
+			Points local = Points.of(xs, ys);
+			AnchorScan scan = new AnchorScan(local, new TileLines(tilePoints, tilePieces), false, FastCollinearPoints.MIN_POINTS);
+			scan.scan(0, scan.anchors());
+			return tilePieces;
+		}
+	}
+
+	/**
+	 * Splits lines found in a tile into pieces of consecutive points at most maxGap apart.
+	 * Tile points are in natural order, so local indices of the tile map to global ones in the same order.
+	 */
+	private class TileLines implements SegmentSink {
+		private final int[] tilePoints;
+		private final Pieces pieces;
+		private final LongHashSet lines = new LongHashSet();
+		private final int[] line;
+
+		private TileLines(int[] tilePoints, Pieces pieces) {
+			this.tilePoints = tilePoints;
+			this.pieces = pieces;
+			line = new int[tilePoints.length];
+		}
+
+		@Override
+		public void addSegment(int firstPoint, int[] candidates, int start, int end) {
+			if (!lines.add(((long) candidates[end - 1] << 32) | candidates[end])) {
+				return;
+			}
+			int length = end - start + 2;
+			line[0] = firstPoint;
+			System.arraycopy(candidates, start, line, 1, length - 1);
+			int pieceStart = 0;
+			for (int i = 1; i < length; i++) {
+				if (!isNear(tilePoints[line[i - 1]], tilePoints[line[i]])) {
+					addPiece(pieceStart, i);
+					pieceStart = i;
+				}
+			}
+			addPiece(pieceStart, length);
+		}
+
+		/**
+		 * Adds points of the line from (including) to (excluding) as a piece, if there are 4 or more of them.
+		 */
+		private void addPiece(int from, int to) {
+			if (to - from < 4) {
+				return;
+			}
+			pieces.startPiece();
+			for (int i = from; i < to; i++) {
+				pieces.add(tilePoints[line[i]]);
+			}
+			pieces.endPiece();
+		}
+
+		private boolean isNear(int a, int b) {
+			return Math.abs((long) points.x(a) - points.x(b)) <= maxGap
+					&& Math.abs((long) points.y(a) - points.y(b)) <= maxGap;
+		}
+	}
+
+	/**
+	 * Pieces of segments, as global point indices in natural order, stored one after another.
+	 */
+	private static class Pieces {
+		private int[] members = new int[16];
+		private int membersSize = 0;
+		private int[] ends = new int[4];
+		private int size = 0;
+
+		private int size() {
+			return size;
+		}
+
+		private int start(int piece) {
+			return piece == 0 ? 0 : ends[piece - 1];
+		}
+
+		private int end(int piece) {
+			return ends[piece];
+		}
+
+		private void startPiece() {
+			if (size == ends.length) {
+				ends = Arrays.copyOf(ends, size * 2);
+			}
+		}
+
+		private void add(int point) {
+			if (membersSize == members.length) {
+				members = Arrays.copyOf(members, membersSize * 2);
+			}
+			members[membersSize++] = point;
+		}
+
+		private void endPiece() {
+			ends[size++] = membersSize;
+		}
+
+		private void addAll(Pieces pieces) {
+			for (int piece = 0; piece < pieces.size(); piece++) {
+				startPiece();
+				for (int i = pieces.start(piece); i < pieces.end(piece); i++) {
+					add(pieces.members[i]);
+				}
+				endPiece();
+			}
+		}
+	}
+}
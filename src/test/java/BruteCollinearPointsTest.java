@@ -1,10 +1,16 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
@@ -12,7 +18,7 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-class BruteCollinearPointsTest {
+class BruteCollinearPointsTest extends PointFixtures {
 	@Test
 	public void init_invalidInputs() {
 		assertThatThrownBy(() -> new BruteCollinearPoints(new Point[]{null}))
@@ -60,12 +66,16 @@ class BruteCollinearPointsTest {
 		);
 	}
 
-	private static LineSegment line(Point p1, Point p2) {
-		return new LineSegment(p1, p2);
-	}
 
-	private static Point xy(int x, int y) {
-		return new Point(x, y);
+	@Test
+	public void fromFile(@TempDir Path dir) throws IOException {
+		//GIVEN
+		Path file = dir.resolve("input5.txt");
+		Files.writeString(file, "5\n1 1\n2 2\n3 3\n4 4\n5 6\n");
+		//WHEN
+		BruteCollinearPoints testee = BruteCollinearPoints.fromFile(file);
+		//THEN
+		assertThat(testee.segments()).containsExactly(line(xy(1, 1), xy(4, 4)));
 	}
 
 	@ParameterizedTest
@@ -78,4 +88,78 @@ class BruteCollinearPointsTest {
 				.containsExactlyInAnyOrder(expectedSegments.toArray(new LineSegment[0]));
 		assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments.size());
 	}
-}
\ No newline at end of file
+
+	@ParameterizedTest
+	@MethodSource("segments")
+	public void optimized_calculates_segments(List<Point> points, List<LineSegment> expectedSegments) {
+		//WHEN
+		BruteCollinearPoints testee = BruteCollinearPoints.optimized(points.toArray(new Point[0]), ForkJoinPool.commonPool());
+		//THEN
+		assertThat(testee.segments())
+				.containsExactlyInAnyOrder(expectedSegments.toArray(new LineSegment[0]));
+		assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments.size());
+	}
+
+	@Test
+	public void optimized_givesSameSegmentsInSameOrder() {
+		//GIVEN
+		Random random = new Random(7);
+		Point[] points = new Point[60];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = i < 36 ? xy(i % 6 * 1000, i / 6 * 3000) : xy(random.nextInt(32768), random.nextInt(32768));
+		}
+		ForkJoinPool pool = new ForkJoinPool(3);
+		//WHEN
+		BruteCollinearPoints testee = BruteCollinearPoints.optimized(points, pool);
+		pool.shutdown();
+		//THEN
+		assertThat(testee.segments()).containsExactly(new BruteCollinearPoints(points).segments());
+		assertThat(testee.numberOfSegments()).isGreaterThan(50);
+	}
+
+	@Test
+	public void optimized_givesSameSegments_withSlopesEqualAsDoubles() {
+		//GIVEN slopes from (0, 0) are equal when computed as doubles, but only 4 points are collinear with it
+		Point[] points = {
+				xy(0, 0),
+				xy(715827882, 715827883),
+				xy(715827881, 715827882),
+				xy(1431655762, 1431655764),
+				xy(715827883, 715827884),
+				xy(2147483640, 2147483641),
+				xy(2147483643, 2147483646) };
+		//WHEN
+		BruteCollinearPoints testee = BruteCollinearPoints.optimized(points, ForkJoinPool.commonPool());
+		//THEN
+		assertThat(testee.segments())
+				.containsExactly(new BruteCollinearPoints(points).segments())
+				.containsExactlyInAnyOrder(line(xy(0, 0), xy(2147483643, 2147483646)),
+										   line(xy(715827881, 715827882), xy(2147483640, 2147483641)));
+	}
+
+	@Test
+	public void calculates_segments_fullIntRange() {
+		//GIVEN
+		Point[] points = new Point[8];
+		for (int k = 0; k < 4; k++) {
+			points[k] = xy(Integer.MIN_VALUE + k * 1431655765, k);
+			points[k + 4] = xy(Integer.MAX_VALUE - k, Integer.MIN_VALUE + 7 * k * k);
+		}
+		//WHEN
+		BruteCollinearPoints testee = new BruteCollinearPoints(points);
+		//THEN
+		assertThat(testee.segments())
+				.containsExactly(line(xy(Integer.MIN_VALUE, 0), xy(Integer.MAX_VALUE, 3)))
+				.containsExactlyInAnyOrder(new FastCollinearPoints(points).segments());
+	}
+
+	@Test
+	public void optimized_invalidInputs() {
+		assertThatThrownBy(() -> BruteCollinearPoints.optimized(null, ForkJoinPool.commonPool()))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> BruteCollinearPoints.optimized(new Point[0], null))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> BruteCollinearPoints.optimized(new Point[]{xy(1, 1), xy(1, 1)}, ForkJoinPool.commonPool()))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CollinearDetectionTest extends PointFixtures {
+	@Test
+	public void async_invalidInputs() {
+		assertThatThrownBy(() -> FastCollinearPoints.async(null, Duration.ofSeconds(1), Runnable::run))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> FastCollinearPoints.async(grid(4), null, Runnable::run))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> FastCollinearPoints.async(grid(4), Duration.ofSeconds(-1), Runnable::run))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> FastCollinearPoints.async(grid(4), Duration.ofSeconds(1), null))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> FastCollinearPoints.async(new Point[]{xy(1, 1), xy(1, 1)}, Duration.ofSeconds(1),
+														   Runnable::run))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void completesWithAllSegments() throws Exception {
+		//GIVEN
+		Point[] grid = grid(12);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		//WHEN
+		CollinearDetection detection = FastCollinearPoints.async(grid, Duration.ofSeconds(1000), executor);
+		FastCollinearPoints result = detection.result().get(30, TimeUnit.SECONDS);
+		executor.shutdown();
+		//THEN
+		assertThat(result.segments()).containsExactly(new FastCollinearPoints(grid).segments());
+		assertThat(detection.isComplete()).isTrue();
+		assertThat(detection.anchorsDone()).isEqualTo(detection.anchors()).isEqualTo(grid.length - 3);
+	}
+
+	@Test
+	public void unlimitedDeadline() {
+		//GIVEN
+		Point[] grid = grid(5);
+		//WHEN
+		CollinearDetection detection = FastCollinearPoints.async(grid, Duration.ofSeconds(Long.MAX_VALUE), Runnable::run);
+		//THEN
+		assertThat(detection.isComplete()).isTrue();
+		assertThat(detection.result().join().segments()).containsExactly(new FastCollinearPoints(grid).segments());
+	}
+
+	@Test
+	public void deadlinePassed_givesPartialResult() {
+		//GIVEN
+		Point[] grid = grid(8);
+		//WHEN
+		CollinearDetection detection = FastCollinearPoints.async(grid, Duration.ZERO, Runnable::run);
+		//THEN
+		assertThat(detection.isComplete()).isFalse();
+		assertThat(detection.anchorsDone()).isZero();
+		assertThat(detection.result().join().numberOfSegments()).isZero();
+	}
+
+	@Test
+	public void cancelled_givesPartialResult() {
+		//GIVEN
+		Queue<Runnable> tasks = new ArrayDeque<>();
+		CollinearDetection detection = FastCollinearPoints.async(grid(8), Duration.ofSeconds(1000), tasks::add);
+		//WHEN
+		detection.cancel();
+		tasks.remove().run();
+		//THEN
+		assertThat(detection.isComplete()).isFalse();
+		assertThat(detection.anchorsDone()).isZero();
+		assertThat(detection.result().join().numberOfSegments()).isZero();
+	}
+
+	@Test
+	public void cancelledFuture_stopsDetection() {
+		//GIVEN
+		Queue<Runnable> tasks = new ArrayDeque<>();
+		CollinearDetection detection = FastCollinearPoints.async(grid(8), Duration.ofSeconds(1000), tasks::add);
+		//WHEN
+		detection.result().cancel(false);
+		tasks.remove().run();
+		//THEN
+		assertThat(detection.anchorsDone()).isZero();
+		assertThat(detection.result().isCancelled()).isTrue();
+	}
+
+	@Test
+	public void partialSegmentsAreMaximal() throws InterruptedException {
+		//GIVEN
+		Point[] grid = grid(10);
+		Queue<Runnable> tasks = new ArrayDeque<>();
+		CollinearDetection detection = FastCollinearPoints.async(grid, Duration.ofSeconds(1000), tasks::add);
+		Runnable task = tasks.remove();
+		//WHEN
+		Thread canceller = new Thread(() -> {
+			while (detection.anchorsDone() < 10) {
+				Thread.onSpinWait();
+			}
+			detection.cancel();
+		});
+		canceller.start();
+		task.run();
+		canceller.join();
+		//THEN
+		assertThat(detection.anchorsDone()).isBetween(10, detection.anchors());
+		assertThat(new FastCollinearPoints(grid).segments())
+				.contains(detection.result().join().segments());
+	}
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CollinearIndexTest extends PointFixtures {
+	@Test
+	public void add_invalidInputs() {
+		CollinearIndex testee = new CollinearIndex(new Point[]{xy(1, 1)});
+		assertThatThrownBy(() -> testee.add(null))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> testee.add(xy(1, 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new CollinearIndex(null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void add_createsSegment() {
+		//GIVEN
+		CollinearIndex testee = new CollinearIndex(new Point[]{xy(1, 1), xy(3, 3), xy(5, 6)});
+		//WHEN
+		testee.add(xy(2, 2));
+		testee.add(xy(4, 4));
+		//THEN
+		assertThat(testee.segments()).containsExactly(line(xy(1, 1), xy(4, 4)));
+		assertThat(testee.size()).isEqualTo(5);
+	}
+
+	@Test
+	public void add_replacesGrowingSegment() {
+		//GIVEN
+		CollinearIndex testee = new CollinearIndex(new Point[]{xy(1, 1), xy(2, 2), xy(3, 3), xy(4, 4)});
+		//WHEN
+		testee.add(xy(0, 0));
+		testee.add(xy(6, 6));
+		testee.add(xy(5, 5));
+		//THEN
+		assertThat(testee.segments()).containsExactly(line(xy(0, 0), xy(6, 6)));
+		assertThat(testee.numberOfSegments()).isEqualTo(1);
+	}
+
+	@Test
+	public void remove_shortensSegment() {
+		//GIVEN
+		CollinearIndex testee = new CollinearIndex(new Point[]{xy(1, 1), xy(2, 2), xy(3, 3), xy(4, 4), xy(5, 5)});
+		//WHEN
+		boolean removed = testee.remove(xy(5, 5));
+		//THEN
+		assertThat(removed).isTrue();
+		assertThat(testee.segments()).containsExactly(line(xy(1, 1), xy(4, 4)));
+	}
+
+	@Test
+	public void remove_dropsSegmentBelow4Points() {
+		//GIVEN
+		CollinearIndex testee = new CollinearIndex(new Point[]{
+				xy(1, 1), xy(2, 2), xy(3, 3), xy(4, 4),
+				xy(1, 2), xy(1, 3), xy(1, 4)});
+		//WHEN
+		testee.remove(xy(1, 1));
+		//THEN
+		assertThat(testee.numberOfSegments()).isZero();
+		assertThat(testee.size()).isEqualTo(6);
+	}
+
+	@Test
+	public void remove_missingPoint() {
+		CollinearIndex testee = new CollinearIndex(new Point[]{xy(1, 1)});
+		assertThat(testee.remove(xy(2, 2))).isFalse();
+		assertThatThrownBy(() -> testee.remove(null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void remove_sameSegmentsAsFast() {
+		//GIVEN
+		Random random = new Random(13);
+		List<Point> points = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			points.add(xy(i % 10, i / 10));
+		}
+		CollinearIndex testee = new CollinearIndex(points.toArray(new Point[0]));
+		while (!points.isEmpty()) {
+			//WHEN
+			testee.remove(points.remove(random.nextInt(points.size())));
+			//THEN
+			assertThat(testee.segments())
+					.containsExactlyInAnyOrder(new FastCollinearPoints(points.toArray(new Point[0])).segments());
+		}
+		testee.add(xy(1, 1));
+		assertThat(testee.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void add_sameSegmentsAsFast() {
+		//GIVEN
+		Random random = new Random(11);
+		Point[] points = new Point[150];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = xy(i % 12 * 2 + random.nextInt(2), i / 12 * 2 + random.nextInt(2));
+		}
+		CollinearIndex testee = new CollinearIndex();
+		for (int i = 0; i < points.length; i++) {
+			//WHEN
+			testee.add(points[i]);
+			//THEN
+			Point[] added = new Point[i + 1];
+			System.arraycopy(points, 0, added, 0, i + 1);
+			assertThat(testee.segments()).containsExactlyInAnyOrder(new FastCollinearPoints(added).segments());
+		}
+	}
+}
@@ -1,10 +1,18 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
@@ -12,7 +20,7 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-class FastCollinearPointsTest {
+class FastCollinearPointsTest extends PointFixtures {
     @Test
     public void init_invalidInputs() {
         assertThatThrownBy(() -> new FastCollinearPoints(null))
@@ -77,6 +85,286 @@ class FastCollinearPointsTest {
     }
 
 
+    @Test
+    public void init_invalidCoordinates() {
+        assertThatThrownBy(() -> new FastCollinearPoints(null, new int[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FastCollinearPoints(new int[] { 1 }, new int[] { 1, 2 }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FastCollinearPoints(new int[] { 1, 1 }, new int[] { 2, 2 }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @MethodSource("segments")
+    public void calculates_segments_fromCoordinates(List<Point> points, List<LineSegment> expectedSegments) {
+        //GIVEN
+        int[] xs = new int[points.size()];
+        int[] ys = new int[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            xs[i] = points.get(i).x();
+            ys[i] = points.get(i).y();
+        }
+        //WHEN
+        FastCollinearPoints testee = new FastCollinearPoints(xs, ys);
+        //THEN
+        assertThat(testee.segments())
+                .containsExactlyInAnyOrder(expectedSegments.toArray(new LineSegment[0]));
+        assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments.size());
+    }
+
+    @Test
+    public void calculates_segments_withSlopesEqualAsDoubles() {
+        //GIVEN slopes from (0, 0) differ, but are equal when computed as doubles
+        Point[] points = {
+                xy(0, 0),
+                xy(2147483640, 2147483641),
+                xy(2147483641, 2147483642),
+                xy(2147483642, 2147483643) };
+        //WHEN
+        FastCollinearPoints testee = new FastCollinearPoints(points);
+        //THEN
+        assertThat(testee.numberOfSegments()).isZero();
+    }
+
+    @Test
+    public void calculates_segments_withSegmentAmongSlopesEqualAsDoubles() {
+        //GIVEN all slopes from (0, 0) are equal when computed as doubles, but only 3 points are collinear with it
+        Point[] points = {
+                xy(0, 0),
+                xy(715827882, 715827883),
+                xy(715827881, 715827882),
+                xy(1431655762, 1431655764),
+                xy(715827883, 715827884),
+                xy(2147483643, 2147483646) };
+        //WHEN
+        FastCollinearPoints testee = new FastCollinearPoints(points);
+        //THEN
+        assertThat(testee.segments()).containsExactly(line(xy(0, 0), xy(2147483643, 2147483646)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("segments")
+    public void calculates_segments_inParallel(List<Point> points, List<LineSegment> expectedSegments) {
+        //WHEN
+        FastCollinearPoints testee = FastCollinearPoints.parallel(points.toArray(new Point[0]), ForkJoinPool.commonPool());
+        //THEN
+        assertThat(testee.segments())
+                .containsExactlyInAnyOrder(expectedSegments.toArray(new LineSegment[0]));
+        assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments.size());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"5,16", "6,22", "8,74"})
+    public void calculates_segments_ofGrid(int size, int expectedSegments) {
+        //WHEN
+        FastCollinearPoints testee = new FastCollinearPoints(grid(size));
+        //THEN
+        assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments);
+        assertThat(testee.segments()).doesNotHaveDuplicates();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"3,3,8", "4,3,14", "5,5,12", "8,3,174", "8,5,30", "8,8,18", "8,9,0"})
+    public void calculates_segments_ofGrid_withMinPoints(int size, int minPoints, int expectedSegments) {
+        //WHEN
+        FastCollinearPoints testee = new FastCollinearPoints(grid(size), minPoints);
+        //THEN
+        assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments);
+        assertThat(testee.segments()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void calculates_segments_withMinPoints() {
+        //GIVEN
+        int[] xs = {0, 1, 2, 0, 1, 2, 3, 4};
+        int[] ys = {0, 0, 0, 5, 6, 7, 8, 9};
+        //WHEN
+        FastCollinearPoints three = new FastCollinearPoints(xs, ys, 3);
+        FastCollinearPoints five = new FastCollinearPoints(xs, ys, 5);
+        FastCollinearPoints six = new FastCollinearPoints(xs, ys, 6);
+        //THEN
+        assertThat(three.segments()).containsExactlyInAnyOrder(
+                line(xy(0, 0), xy(2, 0)), line(xy(0, 5), xy(4, 9)));
+        assertThat(five.segments()).containsExactly(line(xy(0, 5), xy(4, 9)));
+        assertThat(six.segments()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "2", "3"})
+    public void calculates_sameSegmentsAsHashEngine_onDenseRandomPoints(long seed) {
+        //GIVEN
+        Random random = new Random(seed);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 144; i++) {
+            if (random.nextInt(10) < 7) {
+                points.add(xy(i % 12, i / 12));
+            }
+        }
+        Point[] array = points.toArray(new Point[0]);
+        //WHEN
+        FastCollinearPoints testee = new FastCollinearPoints(array);
+        //THEN
+        assertThat(testee.segments()).containsExactlyInAnyOrder(new HashCollinearPoints(array).segments());
+    }
+
+    @Test
+    public void init_invalidMinPoints() {
+        assertThatThrownBy(() -> new FastCollinearPoints(new Point[0], 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FastCollinearPoints(new int[0], new int[0], 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @MethodSource("segments")
+    public void streams_segments(List<Point> points, List<LineSegment> expectedSegments) {
+        //GIVEN
+        List<LineSegment> streamed = new ArrayList<>();
+        //WHEN
+        FastCollinearPoints.forEachSegment(points.toArray(new Point[0]), streamed::add);
+        //THEN
+        assertThat(streamed).containsExactlyInAnyOrder(expectedSegments.toArray(new LineSegment[0]));
+    }
+
+    @Test
+    public void streams_sameSegmentsAsCollected() {
+        //GIVEN
+        Point[] grid = grid(9);
+        List<LineSegment> streamed = new ArrayList<>();
+        //WHEN
+        FastCollinearPoints.forEachSegment(grid, streamed::add);
+        //THEN
+        assertThat(streamed).containsExactlyInAnyOrder(new FastCollinearPoints(grid).segments());
+    }
+
+    @Test
+    public void streams_invalidInputs() {
+        assertThatThrownBy(() -> FastCollinearPoints.forEachSegment((Point[]) null, segment -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FastCollinearPoints.forEachSegment(new Point[0], null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void parallel_givesSameSegmentsInSameOrder() {
+        //GIVEN
+        Point[] grid = grid(12);
+        //WHEN
+        FastCollinearPoints sequential = new FastCollinearPoints(grid);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        FastCollinearPoints parallel = FastCollinearPoints.parallel(grid, pool);
+        pool.shutdown();
+        //THEN
+        assertThat(parallel.segments()).containsExactly(sequential.segments());
+    }
+
+    @Test
+    public void parallel_invalidInputs() {
+        assertThatThrownBy(() -> FastCollinearPoints.parallel(null, ForkJoinPool.commonPool()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FastCollinearPoints.parallel(new Point[0], null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void batch_givesSameSegmentsAsSingleSets() {
+        //GIVEN
+        List<Point[]> sets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sets.add(grid(i % 7));
+        }
+        sets.add(new Point[0]);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        //WHEN
+        List<FastCollinearPoints> results = FastCollinearPoints.batch(sets, pool);
+        pool.shutdown();
+        //THEN
+        assertThat(results).hasSize(sets.size());
+        for (int i = 0; i < sets.size(); i++) {
+            assertThat(results.get(i).segments()).containsExactly(new FastCollinearPoints(sets.get(i)).segments());
+        }
+    }
+
+    @Test
+    public void batch_invalidInputs() {
+        assertThatThrownBy(() -> FastCollinearPoints.batch(null, ForkJoinPool.commonPool()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FastCollinearPoints.batch(Collections.emptyList(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FastCollinearPoints.batch(asList(grid(4), null), ForkJoinPool.commonPool()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FastCollinearPoints.batch(singletonList(new Point[]{xy(1, 1), xy(1, 1)}),
+                                                           ForkJoinPool.commonPool()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void stats_measureWithoutChangingSegments() {
+        //GIVEN
+        Point[] grid = grid(10);
+        CollinearStats stats = new CollinearStats();
+        //WHEN
+        FastCollinearPoints testee = new FastCollinearPoints(grid, 4, stats);
+        //THEN
+        assertThat(testee.segments()).containsExactly(new FastCollinearPoints(grid).segments());
+        assertThat(stats.segments()).isEqualTo(testee.numberOfSegments());
+        assertThat(stats.anchors() + stats.skippedAnchors()).isEqualTo(grid.length - 3);
+        assertThat(stats.candidates()).isPositive();
+        assertThat(stats.comparisons()).isPositive();
+        assertThat(stats.validateNanos()).isNotNegative();
+        assertThat(stats.slopesNanos() + stats.sortNanos() + stats.scanNanos() + stats.dedupNanos()).isPositive();
+        assertThat(stats.allocatedBytes()).isNotNegative();
+    }
+
+    @Test
+    public void stats_countCandidatesOnKnownLines() {
+        //GIVEN
+        CollinearStats stats = new CollinearStats();
+        //WHEN
+        new FastCollinearPoints(grid(4), 4, stats);
+        //THEN
+        assertThat(stats.segments()).isEqualTo(10);
+        assertThat(stats.prunedCandidates()).isEqualTo(27);
+        assertThat(stats.duplicates()).isZero();
+        assertThat(stats.anchors()).isEqualTo(11);
+        assertThat(stats.skippedAnchors()).isEqualTo(2);
+    }
+
+    @Test
+    public void stats_addUpOverRuns() {
+        //GIVEN
+        Point[] grid = grid(6);
+        CollinearStats stats = new CollinearStats();
+        new FastCollinearPoints(grid, 4, stats);
+        long segments = stats.segments();
+        long comparisons = stats.comparisons();
+        //WHEN
+        new FastCollinearPoints(grid, 4, stats);
+        //THEN
+        assertThat(stats.segments()).isEqualTo(2 * segments);
+        assertThat(stats.comparisons()).isEqualTo(2 * comparisons);
+    }
+
+    @Test
+    public void stats_invalidInputs() {
+        assertThatThrownBy(() -> new FastCollinearPoints(grid(4), 4, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FastCollinearPoints(grid(4), 2, new CollinearStats()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void fromFile(@TempDir Path dir) throws IOException {
+        //GIVEN
+        Path file = dir.resolve("input5.txt");
+        Files.writeString(file, "5\n1 1\n2 2\n3 3\n4 4\n5 6\n");
+        //WHEN
+        FastCollinearPoints testee = FastCollinearPoints.fromFile(file);
+        //THEN
+        assertThat(testee.segments()).containsExactly(line(xy(1, 1), xy(4, 4)));
+    }
+
     @ParameterizedTest
     @MethodSource("autograder")
     public void calculates_autograder(List<Point> points, List<LineSegment> expectedSegments) {
@@ -265,14 +553,6 @@ class FastCollinearPointsTest {
     }
 
 
-    private static LineSegment line(Point p1, Point p2) {
-        return new LineSegment(p1, p2);
-    }
-
-    private static Point xy(int x, int y) {
-        return new Point(x, y);
-    }
-
     //needs merge sort with comparator implementation
 /*
 	@Test
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashCollinearPointsTest extends PointFixtures {
+    @Test
+    public void init_invalidInputs() {
+        assertThatThrownBy(() -> new HashCollinearPoints(null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashCollinearPoints(new Point[] { null }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashCollinearPoints(new Point[] { xy(1, 1), null }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashCollinearPoints(new Point[] { xy(1, 1), xy(1, 1) }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashCollinearPoints(new int[] { 1 }, new int[] { 1, 2 }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Stream<Arguments> segments() {
+        return Stream.of(
+                Arguments.of(Collections.EMPTY_LIST, Collections.EMPTY_LIST)
+                , Arguments.of(asList(xy(1, 1), xy(2, 2), xy(3, 3)), Collections.EMPTY_LIST)
+                , Arguments.of(asList(xy(1, 1), xy(2, 2), xy(4, 4), xy(3, 3)),
+                               singletonList(line(xy(1, 1), xy(4, 4))))
+                , Arguments.of(asList(xy(1, 1), xy(-2, -2), xy(3, 3), xy(4, 4)),
+                               singletonList(line(xy(-2, -2), xy(4, 4))))
+                , Arguments.of(asList(xy(1, 1), xy(2, 2), xy(3, 3), xy(4, 4), xy(5, 6)),
+                               singletonList(line(xy(1, 1), xy(4, 4))))
+                , Arguments.of(asList(
+                        xy(1, 1), xy(2, 2), xy(3, 3), xy(4, 4),
+                        xy(0, 4), xy(4, 0), xy(5, -1),
+                        xy(2, 5))
+                        , asList(
+                                line(xy(1, 1), xy(4, 4)),
+                                line(xy(5, -1), xy(0, 4))
+                        )
+                )
+                , Arguments.of(asList(
+                        xy(0, 0), xy(0, 5), xy(0, 2), xy(0, 9), xy(0, 7),
+                        xy(3, 0), xy(6, 0), xy(9, 0))
+                        , asList(
+                                line(xy(0, 0), xy(0, 9)),
+                                line(xy(0, 0), xy(9, 0))
+                        )
+                )
+                , Arguments.of(asList(
+                        xy(0, 0),
+                        xy(715827882, 715827883),
+                        xy(715827881, 715827882),
+                        xy(1431655762, 1431655764),
+                        xy(715827883, 715827884),
+                        xy(2147483643, 2147483646))
+                        , singletonList(line(xy(0, 0), xy(2147483643, 2147483646)))
+                )
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("segments")
+    public void calculates_segments(List<Point> points, List<LineSegment> expectedSegments) {
+        //WHEN
+        HashCollinearPoints testee = new HashCollinearPoints(points.toArray(new Point[0]));
+        //THEN
+        assertThat(testee.segments())
+                .containsExactlyInAnyOrder(expectedSegments.toArray(new LineSegment[0]));
+        assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments.size());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"5,16", "6,22", "8,74"})
+    public void calculates_segments_ofGrid(int size, int expectedSegments) {
+        //GIVEN
+        Point[] points = new Point[size * size];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = xy(i % size, i / size);
+        }
+        //WHEN
+        HashCollinearPoints testee = new HashCollinearPoints(points);
+        //THEN
+        assertThat(testee.numberOfSegments()).isEqualTo(expectedSegments);
+        assertThat(testee.segments()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void calculates_sameSegmentsAsFast() {
+        //GIVEN
+        Random random = new Random(7);
+        int[] xs = new int[400];
+        int[] ys = new int[400];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i % 20 * 3 + random.nextInt(2);
+            ys[i] = i / 20 * 3 + random.nextInt(2);
+        }
+        //WHEN
+        HashCollinearPoints testee = new HashCollinearPoints(xs, ys);
+        //THEN
+        assertThat(testee.segments())
+                .containsExactlyInAnyOrder(new FastCollinearPoints(xs, ys).segments());
+    }
+}
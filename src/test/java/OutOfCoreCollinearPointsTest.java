@@ -0,0 +1,152 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OutOfCoreCollinearPointsTest {
+	@TempDir
+	Path dir;
+
+	@Test
+	public void detect_invalidInputs() throws IOException {
+		Path points = dir.resolve("points.bin");
+		PointsFile.write(points, new int[]{1, 2, 1}, new int[]{1, 2, 1});
+		Path segments = dir.resolve("segments.txt");
+		assertThatThrownBy(() -> OutOfCoreCollinearPoints.detect(null, segments, 64))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> OutOfCoreCollinearPoints.detect(points, null, 64))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> OutOfCoreCollinearPoints.detect(points, segments, 63))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> OutOfCoreCollinearPoints.detect(points, segments, 64))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(dir).isDirectoryContaining(file -> file.equals(points))
+					   .isDirectoryNotContaining(file -> file.getFileName().toString().startsWith("collinear"));
+	}
+
+	@Test
+	public void detect_fewPoints() throws IOException {
+		//GIVEN
+		Path points = dir.resolve("points.bin");
+		PointsFile.write(points, new int[]{1, 2, 3}, new int[]{1, 2, 3});
+		Path segments = dir.resolve("segments.txt");
+		//WHEN
+		long count = OutOfCoreCollinearPoints.detect(points, segments, 64);
+		//THEN
+		assertThat(count).isZero();
+		assertThat(Files.readAllLines(segments)).isEmpty();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {64, 100, 1000, 100000})
+	public void detect_sameSegmentsAsFast(int memoryBudget) throws IOException {
+		assertSameSegmentsAsFast(500, memoryBudget);
+	}
+
+	@Test
+	public void detect_batchesAnchorsWhenGroupsFitTables() throws IOException {
+		//GIVEN
+		int size = 300;
+		int memoryBudget = 1 << 16;
+		//WHEN
+		int batch = OutOfCoreCollinearPoints.anchorBatch(memoryBudget, size);
+		int partitions = OutOfCoreCollinearPoints.partitions(memoryBudget, size);
+		//THEN
+		assertThat(batch).isBetween(2, (size - 3) / 2);
+		assertThat(partitions).isEqualTo(1);
+		assertSameSegmentsAsFast(size, memoryBudget);
+	}
+
+	@Test
+	public void detect_spillsOneAnchorAtATime() throws IOException {
+		//GIVEN
+		int size = 300;
+		int memoryBudget = 512;
+		//WHEN
+		int batch = OutOfCoreCollinearPoints.anchorBatch(memoryBudget, size);
+		int partitions = OutOfCoreCollinearPoints.partitions(memoryBudget, size);
+		//THEN
+		assertThat(batch).isEqualTo(1);
+		assertThat(partitions).isGreaterThan(1);
+		assertSameSegmentsAsFast(size, memoryBudget);
+	}
+
+	@Test
+	public void detect_mergesRunsInPasses() throws IOException {
+		//GIVEN
+		int size = 1000;
+		int memoryBudget = 64;
+		//WHEN
+		int fanIn = OutOfCoreCollinearPoints.mergeFanIn(memoryBudget);
+		//THEN
+		assertThat(size / memoryBudget).isGreaterThan(fanIn * fanIn);
+		assertSameSegmentsAsFast(size, memoryBudget);
+	}
+
+	@Test
+	public void detect_repeatedPointInLaterRun() throws IOException {
+		int size = 1000;
+		int[] xs = new int[size];
+		int[] ys = new int[size];
+		for (int i = 0; i < size; i++) {
+			xs[i] = i;
+			ys[i] = i * i % 997;
+		}
+		xs[size - 1] = xs[0];
+		ys[size - 1] = ys[0];
+		Path points = dir.resolve("points.bin");
+		PointsFile.write(points, xs, ys);
+		assertThatThrownBy(() -> OutOfCoreCollinearPoints.detect(points, dir.resolve("segments.txt"), 64))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(dir).isDirectoryNotContaining(file -> file.getFileName().toString().startsWith("collinear"));
+	}
+
+	@Test
+	public void mergeFanIn_boundedByBudget() {
+		assertThat(OutOfCoreCollinearPoints.mergeFanIn(64)).isEqualTo(2);
+		assertThat(OutOfCoreCollinearPoints.mergeFanIn(1 << 14)).isEqualTo(32);
+		assertThat(OutOfCoreCollinearPoints.mergeFanIn(1 << 22)).isEqualTo(64);
+	}
+
+	@Test
+	public void partitions_onlyWhenGroupsMayNotFit() {
+		assertThat(OutOfCoreCollinearPoints.partitions(1 << 20, 500)).isEqualTo(1);
+		assertThat(OutOfCoreCollinearPoints.partitions(64, 500)).isEqualTo(64);
+	}
+
+	private void assertSameSegmentsAsFast(int size, int memoryBudget) throws IOException {
+		//GIVEN
+		Random random = new Random(memoryBudget);
+		int[] xs = new int[size];
+		int[] ys = new int[size];
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = i % 25 * 3 + random.nextInt(2);
+			ys[i] = -i / 25 * 2 - random.nextInt(2);
+		}
+		xs[0] = Integer.MAX_VALUE;
+		ys[0] = Integer.MIN_VALUE;
+		Path points = dir.resolve("points.bin");
+		PointsFile.write(points, xs, ys);
+		Path segments = dir.resolve("segments.txt");
+		//WHEN
+		long count = OutOfCoreCollinearPoints.detect(points, segments, memoryBudget);
+		//THEN
+		String[] expected = Arrays.stream(new FastCollinearPoints(xs, ys).segments())
+								  .map(LineSegment::toString)
+								  .toArray(String[]::new);
+		assertThat(Files.readAllLines(segments)).containsExactlyInAnyOrder(expected);
+		assertThat(count).isEqualTo(expected.length);
+		assertThat(Files.list(dir).map(Path::getFileName).map(Path::toString).collect(Collectors.toList()))
+				.containsExactlyInAnyOrder("points.bin", "segments.txt");
+	}
+}
@@ -0,0 +1,23 @@
+/**
+ * Points and segments used by the tests of the engines, which extend this class to call them unqualified.
+ */
+abstract class PointFixtures {
+	static Point xy(int x, int y) {
+		return new Point(x, y);
+	}
+
+	static LineSegment line(Point p1, Point p2) {
+		return new LineSegment(p1, p2);
+	}
+
+	/**
+	 * @return points of a size by size grid, by rows
+	 */
+	static Point[] grid(int size) {
+		Point[] points = new Point[size * size];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = xy(i % size, i / size);
+		}
+		return points;
+	}
+}
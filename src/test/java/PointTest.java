@@ -29,6 +29,14 @@ public class PointTest {
 		assertThat(testee.slopeTo(other)).isEqualTo(Double.POSITIVE_INFINITY);
 	}
 
+	@Test
+	public void slopeTo_fullIntRange() {
+		Point testee = new Point(Integer.MIN_VALUE, 0);
+		Point other = new Point(Integer.MAX_VALUE, 1);
+		assertThat(testee.slopeTo(other)).isEqualTo(1.0d / 4294967295L);
+		assertThat(other.slopeTo(testee)).isEqualTo(1.0d / 4294967295L);
+	}
+
 	@Test
 	public void slopeTo_samePoint() {
 		Point testee = new Point(1, 1);
@@ -45,7 +53,8 @@ public class PointTest {
 	}
 
 	@ParameterizedTest
-	@CsvSource({"1,1,1,2","1,1,0,2","1,1,2,2","1,1,2,1","-1,1,1,1","0,-2,-1,-1","0,-2,-1,1"})
+	@CsvSource({"1,1,1,2","1,1,0,2","1,1,2,2","1,1,2,1","-1,1,1,1","0,-2,-1,-1","0,-2,-1,1",
+			"2147483647,-2147483648,-2147483648,2147483647","-2147483648,0,2147483647,0"})
 	public void compareTo_whenLess(int x0, int y0, int x1, int y1) {
 		Point testee = new Point(x0, y0);
 		Point other = new Point(x1, y1);
@@ -53,7 +62,8 @@ public class PointTest {
 	}
 
 	@ParameterizedTest
-	@CsvSource({"1,2,1,1", "0,2,1,1", "2,2,1,1", "2,1,1,1","-3,-3,-2,-5","2,2,1,-2"})
+	@CsvSource({"1,2,1,1", "0,2,1,1", "2,2,1,1", "2,1,1,1","-3,-3,-2,-5","2,2,1,-2",
+			"2147483647,0,-2147483648,0","0,2147483647,0,-2147483648"})
 	public void compareTo_whenGreater(int x0, int y0, int x1, int y1) {
 		Point testee = new Point(x0, y0);
 		Point other = new Point(x1, y1);
@@ -89,4 +99,14 @@ public class PointTest {
 		Comparator<Point> pointComparator = testee.slopeOrder();
 		assertThat(pointComparator.compare(a,b)).isPositive();
 	}
+
+	@Test
+	public void slopeOrder_distinguishesSlopesEqualAsDoubles() {
+		Point testee = new Point(0, 0);
+		Point a = new Point(2147483640, 2147483641);
+		Point b = new Point(2147483641, 2147483642);
+		assertThat(testee.slopeTo(a)).isEqualTo(testee.slopeTo(b));
+		assertThat(testee.slopeOrder().compare(a, b)).isPositive();
+		assertThat(testee.slopeOrder().compare(b, a)).isNegative();
+	}
 }
@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointsFileTest {
+	@TempDir
+	Path dir;
+
+	@Test
+	public void writeAndRead() throws IOException {
+		//GIVEN
+		Path file = dir.resolve("points.bin");
+		int[] xs = {1, -2, Integer.MAX_VALUE, Integer.MIN_VALUE};
+		int[] ys = {5, 0, Integer.MIN_VALUE, 7};
+		//WHEN
+		PointsFile.write(file, xs, ys);
+		PointsFile testee = PointsFile.read(file);
+		//THEN
+		assertThat(Files.size(file)).isEqualTo(PointsFile.HEADER_BYTES + 4 * 8);
+		assertThat(testee.size()).isEqualTo(4);
+		assertThat(testee.xs()).containsExactly(xs);
+		assertThat(testee.ys()).containsExactly(ys);
+	}
+
+	@Test
+	public void convert_textFile() throws IOException {
+		//GIVEN
+		Path text = dir.resolve("input4.txt");
+		Files.writeString(text, "4\n 1 1\n2  2\n\n3 3\n4 4\n");
+		Path binary = dir.resolve("input4.bin");
+		//WHEN
+		PointsFile.convert(text, binary);
+		PointsFile testee = PointsFile.read(binary);
+		//THEN
+		assertThat(new FastCollinearPoints(testee.xs(), testee.ys()).segments())
+				.containsExactly(new LineSegment(new Point(1, 1), new Point(4, 4)));
+	}
+
+	@Test
+	public void readText() throws IOException {
+		//GIVEN
+		Path text = dir.resolve("input.txt");
+		Files.writeString(text, "3\r\n-2147483648 2147483647\r\n\t+5   -6\r\n0 0");
+		//WHEN
+		PointsFile testee = PointsFile.readText(text);
+		//THEN
+		assertThat(testee.xs()).containsExactly(Integer.MIN_VALUE, 5, 0);
+		assertThat(testee.ys()).containsExactly(Integer.MAX_VALUE, -6, 0);
+	}
+
+	private static Stream<Arguments> malformedTexts() {
+		return Stream.of(
+				Arguments.of("2\n1 1\n2 x2\n", ":3: not an integer")
+				, Arguments.of("2\n1 1\n2  \n", ":4: unexpected end of file")
+				, Arguments.of("2\n1 1\n2\n", ":1: 2 points cannot fit in the remaining 7 bytes")
+				, Arguments.of("2000000000\n1 1\n", ":1: 2000000000 points cannot fit")
+				, Arguments.of("2\n1 1\n\n2 2 3", ":4: unexpected content")
+				, Arguments.of("1\n1 2147483648", ":2: integer out of range")
+				, Arguments.of("1\n1 -99999999999", ":2: integer out of range")
+				, Arguments.of("-1", ":1: negative number of points")
+				, Arguments.of("", ":1: unexpected end of file")
+		);
+	}
+
+	@ParameterizedTest
+	@MethodSource("malformedTexts")
+	public void readText_reportsLineOfMalformedInput(String content, String expectedMessage) throws IOException {
+		Path text = dir.resolve("malformed.txt");
+		Files.writeString(text, content);
+		assertThatThrownBy(() -> PointsFile.readText(text))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining(expectedMessage);
+	}
+
+	@Test
+	public void read_invalidFiles() throws IOException {
+		Path notPoints = dir.resolve("not.bin");
+		Files.write(notPoints, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+		assertThatThrownBy(() -> PointsFile.read(notPoints)).isInstanceOf(IOException.class);
+
+		Path truncated = dir.resolve("truncated.bin");
+		PointsFile.write(truncated, new int[]{1, 2}, new int[]{3, 4});
+		byte[] bytes = Files.readAllBytes(truncated);
+		Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+		assertThatThrownBy(() -> PointsFile.read(truncated)).isInstanceOf(IOException.class);
+	}
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RadixSortTest {
+
+	@ParameterizedTest
+	@CsvSource({"0,1", "1,2", "10,3", "63,4", "64,5", "1000,6", "5000,7"})
+	public void sort_isStableByKey(int n, long seed) {
+		//GIVEN
+		Random random = new Random(seed);
+		double[] special = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.0d, -0.0d, Double.MIN_VALUE, -1e300};
+		double[] keys = new double[n];
+		for (int i = 0; i < n; i++) {
+			int kind = random.nextInt(4);
+			keys[i] = kind == 0 ? special[random.nextInt(special.length)]
+					: kind == 1 ? random.nextInt(5) - 2
+					: (random.nextDouble() - 0.5d) * Math.pow(10, random.nextInt(40) - 20);
+		}
+		int[] indices = IntStream.range(0, n).toArray();
+		Integer[] expected = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+		double[] original = keys.clone();
+		Arrays.sort(expected, Comparator.comparing((Integer i) -> original[i], Double::compare));
+		//WHEN
+		new RadixSort().sort(keys, indices, new double[n], new int[n], n);
+		//THEN
+		assertThat(indices).containsExactly(Arrays.stream(expected).mapToInt(Integer::intValue).toArray());
+		for (int i = 0; i < n; i++) {
+			assertThat(keys[i]).isEqualTo(original[indices[i]]);
+		}
+	}
+
+	@Test
+	public void sort_onlyFirstN() {
+		//GIVEN
+		double[] keys = new double[100];
+		int[] indices = new int[100];
+		for (int i = 0; i < 100; i++) {
+			keys[i] = 100 - i;
+			indices[i] = i;
+		}
+		//WHEN
+		new RadixSort().sort(keys, indices, new double[100], new int[100], 80);
+		//THEN
+		assertThat(indices[0]).isEqualTo(79);
+		assertThat(indices[79]).isEqualTo(0);
+		assertThat(indices[80]).isEqualTo(80);
+		assertThat(keys[99]).isEqualTo(1.0d);
+	}
+
+	@Test
+	public void sortableBits_keepsOrder() {
+		double[] keys = {Double.NEGATIVE_INFINITY, -1e300, -1.0d, -Double.MIN_VALUE, -0.0d, 0.0d, Double.MIN_VALUE, 1.0d,
+				1e300, Double.POSITIVE_INFINITY};
+		for (int i = 1; i < keys.length; i++) {
+			assertThat(Long.compareUnsigned(RadixSort.sortableBits(keys[i - 1]), RadixSort.sortableBits(keys[i])))
+					.isNegative();
+		}
+	}
+}
@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlopesTest {
+
+	@ParameterizedTest
+	@CsvSource({"-1,-1,2,2","3,3,5,5","-5,-2,-3,-1","-2,-2,-10,-10","2,1,3,1","1,2,1,3"})
+	public void compare_whenEqual(int x1, int y1, int x2, int y2) {
+		assertThat(Slopes.compare(1, 1, x1, y1, x2, y2)).isZero();
+	}
+
+	@ParameterizedTest
+	@CsvSource({"5,2,3,2","-3,3,2,2","-1,10,2,1","3,-10,-1,3","1,1,2,2","3,4,1,5"})
+	public void compare_whenLess(int x1, int y1, int x2, int y2) {
+		assertThat(Slopes.compare(1, 1, x1, y1, x2, y2)).isNegative();
+	}
+
+	@ParameterizedTest
+	@CsvSource({"1,2,1,1", "0,2,1,1", "2,2,1,1", "2,1,1,1","-2,-5,-3,-3","2,2,3,-2","1,5,3,4"})
+	public void compare_whenGreater(int x1, int y1, int x2, int y2) {
+		assertThat(Slopes.compare(1, 1, x1, y1, x2, y2)).isPositive();
+	}
+
+	@ParameterizedTest
+	@CsvSource({"-1,-1,2,2","5,2,3,2","-3,3,2,2","1,2,1,1","-2,-5,-3,-3","2,2,3,-2"})
+	public void compare_isConsistentWithSlopeOrder(int x1, int y1, int x2, int y2) {
+		Point origin = new Point(1, 1);
+		int expected = Integer.signum(origin.slopeOrder().compare(new Point(x1, y1), new Point(x2, y2)));
+		assertThat(Integer.signum(Slopes.compare(1, 1, x1, y1, x2, y2))).isEqualTo(expected);
+	}
+
+	@Test
+	public void compare_distinguishesSlopesEqualAsDoubles() {
+		Point origin = new Point(0, 0);
+		Point a = new Point(2147483640, 2147483641);
+		Point b = new Point(2147483641, 2147483642);
+		assertThat(origin.slopeTo(a)).isEqualTo(origin.slopeTo(b));
+		assertThat(Slopes.compare(0, 0, 2147483640, 2147483641, 2147483641, 2147483642)).isPositive();
+	}
+
+	@Test
+	public void compare_fullIntRange() {
+		int min = Integer.MIN_VALUE;
+		int max = Integer.MAX_VALUE;
+		assertThat(Slopes.compare(min, min, max, max, 0, 0)).isZero();
+		assertThat(Slopes.compare(min, min, max, max - 1, max - 1, max)).isNegative();
+		assertThat(Slopes.compare(max, min, min, max, 0, -1)).isZero();
+		assertThat(Slopes.compare(max, min, min, max, max, max)).isNegative();
+	}
+}
@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TiledCollinearPointsTest extends PointFixtures {
+	@Test
+	public void init_invalidInputs() {
+		assertThatThrownBy(() -> new TiledCollinearPoints(null, 1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TiledCollinearPoints(new Point[]{xy(1, 1), null}, 1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TiledCollinearPoints(new Point[]{xy(1, 1)}, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TiledCollinearPoints(new Point[]{xy(1, 1)}, 1, null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void splitsSegmentAtGaps() {
+		//GIVEN
+		Point[] points = {
+				xy(0, 0), xy(1, 1), xy(2, 2), xy(3, 3),
+				xy(10, 10), xy(11, 11), xy(12, 12),
+				xy(20, 20), xy(22, 22), xy(24, 24), xy(26, 26), xy(28, 28)};
+		//WHEN
+		TiledCollinearPoints testee = new TiledCollinearPoints(points, 2);
+		//THEN
+		assertThat(testee.segments()).containsExactlyInAnyOrder(
+				line(xy(0, 0), xy(3, 3)),
+				line(xy(20, 20), xy(28, 28)));
+	}
+
+	@Test
+	public void stitchesLongSegmentAcrossTiles() {
+		//GIVEN
+		Point[] points = new Point[200];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = xy(-300 + 3 * i, 1000 - 2 * i);
+		}
+		ForkJoinPool pool = new ForkJoinPool(3);
+		//WHEN
+		TiledCollinearPoints testee;
+		try {
+			testee = new TiledCollinearPoints(points, 3, pool);
+		} finally {
+			pool.shutdown();
+		}
+		//THEN
+		assertThat(testee.segments()).containsExactly(line(xy(297, 602), xy(-300, 1000)));
+	}
+
+	@Test
+	public void findsAllSegmentsWhenGapIsLarge() {
+		//GIVEN
+		Random random = new Random(3);
+		Point[] points = new Point[300];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = xy(i % 15 * 4 + random.nextInt(3), i / 15 * 4 + random.nextInt(3));
+		}
+		//WHEN
+		TiledCollinearPoints testee = new TiledCollinearPoints(points, 100);
+		//THEN
+		assertThat(testee.segments()).containsExactlyInAnyOrder(new FastCollinearPoints(points).segments());
+	}
+
+	@Test
+	public void findsSameSegmentsAsChainsOfFastSegments() {
+		//GIVEN
+		Random random = new Random(5);
+		Point[] points = new Point[400];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = xy(i % 20 * 2 + random.nextInt(2), i / 20 * 2 + random.nextInt(2));
+		}
+		int maxGap = 3;
+		//WHEN
+		TiledCollinearPoints testee = new TiledCollinearPoints(points, maxGap);
+		//THEN
+		assertThat(testee.segments()).containsExactlyInAnyOrder(localSegments(points, maxGap).toArray(new LineSegment[0]));
+	}
+
+	/**
+	 * Reference: split every line of 4 or more points at gaps, comparing all the points on the line.
+	 */
+	private static List<LineSegment> localSegments(Point[] points, int maxGap) {
+		List<LineSegment> result = new ArrayList<>();
+		for (LineSegment segment : new FastCollinearPoints(points).segments()) {
+			Point first = endpoint(segment, 0);
+			Point last = endpoint(segment, 1);
+			List<Point> onLine = new ArrayList<>();
+			for (Point point : points) {
+				if (first.slopeTo(point) == first.slopeTo(last) || point.compareTo(first) == 0) {
+					onLine.add(point);
+				}
+			}
+			onLine.sort(Point::compareTo);
+			int start = 0;
+			for (int i = 1; i <= onLine.size(); i++) {
+				if (i == onLine.size() || !near(onLine.get(i - 1), onLine.get(i), maxGap)) {
+					if (i - start >= 4) {
+						result.add(line(onLine.get(start), onLine.get(i - 1)));
+					}
+					start = i;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static Point endpoint(LineSegment segment, int i) {
+		String[] coordinates = segment.toString().replaceAll("[() ]", "").split("->")[i].split(",");
+		return xy(Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1]));
+	}
+
+	private static boolean near(Point a, Point b, int maxGap) {
+		return Math.abs(a.x() - b.x()) <= maxGap && Math.abs(a.y() - b.y()) <= maxGap;
+	}
+}